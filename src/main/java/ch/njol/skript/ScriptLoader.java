@@ -22,23 +22,27 @@ import ch.njol.skript.config.Config;
 import ch.njol.skript.config.Node;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.config.SimpleNode;
+import ch.njol.skript.events.EvtScript;
 import ch.njol.skript.events.bukkit.PreScriptLoadEvent;
 import ch.njol.skript.lang.Section;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.Statement;
 import ch.njol.skript.lang.TriggerItem;
 import ch.njol.skript.lang.TriggerSection;
+import ch.njol.skript.lang.parser.ParseCache;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.CountingLogHandler;
 import ch.njol.skript.log.LogEntry;
 import ch.njol.skript.log.RetainingLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.sections.SecLoop;
+import ch.njol.skript.structures.StructEvent;
 import ch.njol.skript.structures.StructOptions.OptionsData;
 import ch.njol.skript.util.ExceptionUtils;
 import ch.njol.skript.util.SkriptColor;
 import ch.njol.skript.util.Task;
 import ch.njol.skript.util.Timespan;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.skript.variables.TypeHints;
 import ch.njol.util.Kleenean;
 import ch.njol.util.NonNullPair;
@@ -47,28 +51,41 @@ import ch.njol.util.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.Priority;
 import org.skriptlang.skript.lang.script.Script;
+import org.skriptlang.skript.lang.script.ScriptData;
 import org.skriptlang.skript.lang.structure.Structure;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -490,17 +507,23 @@ public class ScriptLoader {
 		
 		ScriptInfo scriptInfo = new ScriptInfo();
 
-		List<NonNullPair<Script, List<Structure>>> scripts = new ArrayList<>();
+		// Indexed like the configs, so the scripts are loaded in the same order even if they're parsed in parallel
+		@SuppressWarnings("unchecked")
+		NonNullPair<Script, List<Structure>>[] scripts = new NonNullPair[configs.size()];
 
 		List<CompletableFuture<Void>> scriptInfoFutures = new ArrayList<>();
-		for (Config config : configs) {
+		for (int i = 0; i < configs.size(); i++) {
+			Config config = configs.get(i);
 			if (config == null)
 				throw new NullPointerException();
 			
+			int index = i;
 			CompletableFuture<Void> future = makeFuture(() -> {
 				NonNullPair<Script, List<Structure>> pair = loadScript(config);
-				scripts.add(pair);
-				scriptInfo.add(new ScriptInfo(1, pair.getSecond().size()));
+				scripts[index] = pair;
+				synchronized (scriptInfo) {
+					scriptInfo.add(new ScriptInfo(1, pair.getSecond().size()));
+				}
 				return null;
 			}, openCloseable);
 			
@@ -509,8 +532,7 @@ public class ScriptLoader {
 		
 		return CompletableFuture.allOf(scriptInfoFutures.toArray(new CompletableFuture[0]))
 			.thenApply(unused -> {
-				// TODO in the future this won't work when parallel loading is fixed
-				// It does now though so let's avoid calling getParser() a bunch.
+				// Structures are only loaded on other threads by loadStructuresInParallel, which uses their parsers
 				ParserInstance parser = getParser();
 
 				try {
@@ -518,7 +540,7 @@ public class ScriptLoader {
 
 					// build sorted list
 					// this nest of pairs is terrible, but we need to keep the reference to the modifiable structures list
-					List<NonNullPair<NonNullPair<Script, List<Structure>>, Structure>> pairs = scripts.stream()
+					List<NonNullPair<NonNullPair<Script, List<Structure>>, Structure>> pairs = Arrays.stream(scripts)
 							.flatMap(pair -> { // Flatten each entry down to a stream of Script-Structure pairs
 								return pair.getSecond().stream()
 										.map(structure -> new NonNullPair<>(pair, structure));
@@ -527,77 +549,19 @@ public class ScriptLoader {
 							.collect(Collectors.toCollection(ArrayList::new));
 
 					// pre-loading
-					pairs.removeIf(pair -> {
-						Structure structure = pair.getSecond();
-
-						parser.setActive(pair.getFirst().getFirst());
-						parser.setCurrentStructure(structure);
-						parser.setNode(structure.getEntryContainer().getSource());
-
-						try {
-							if (!structure.preLoad()) {
-								pair.getFirst().getSecond().remove(structure);
-								return true;
-							}
-						} catch (Exception e) {
-							//noinspection ThrowableNotThrown
-							Skript.exception(e, "An error occurred while trying to preLoad a Structure.");
-							pair.getFirst().getSecond().remove(structure);
-							return true;
-						}
-						return false;
-					});
+					pairs.removeIf(pair -> !runLoadingStage(parser, pair, Structure::preLoad, "preLoad"));
 					parser.setInactive();
 
-					// TODO in the future, Structure#load/Structure#postLoad should be split across multiple threads if parallel loading is enabled.
-					// However, this is not possible right now as reworks in multiple areas will be needed.
-					// For example, the "Commands" class still uses a static list for currentArguments that is cleared between loads.
-					// Until these reworks happen, limiting main loading to asynchronous (not parallel) is the only choice we have.
-
 					// loading
-					pairs.removeIf(pair -> {
-						Structure structure = pair.getSecond();
-
-						parser.setActive(pair.getFirst().getFirst());
-						parser.setCurrentStructure(structure);
-						parser.setNode(structure.getEntryContainer().getSource());
-
-						try {
-							if (!structure.load()) {
-								pair.getFirst().getSecond().remove(structure);
-								return true;
-							}
-						} catch (Exception e) {
-							//noinspection ThrowableNotThrown
-							Skript.exception(e, "An error occurred while trying to load a Structure.");
-							pair.getFirst().getSecond().remove(structure);
-							return true;
-						}
-						return false;
-					});
-					parser.setInactive();
+					if (isParallel()) {
+						loadStructuresInParallel(pairs, openCloseable);
+					} else {
+						pairs.removeIf(pair -> !runLoadingStage(parser, pair, Structure::load, "load"));
+						parser.setInactive();
+					}
 
 					// post-loading
-					pairs.removeIf(pair -> {
-						Structure structure = pair.getSecond();
-
-						parser.setActive(pair.getFirst().getFirst());
-						parser.setCurrentStructure(structure);
-						parser.setNode(structure.getEntryContainer().getSource());
-
-						try {
-							if (!structure.postLoad()) {
-								pair.getFirst().getSecond().remove(structure);
-								return true;
-							}
-						} catch (Exception e) {
-							//noinspection ThrowableNotThrown
-							Skript.exception(e, "An error occurred while trying to postLoad a Structure.");
-							pair.getFirst().getSecond().remove(structure);
-							return true;
-						}
-						return false;
-					});
+					pairs.removeIf(pair -> !runLoadingStage(parser, pair, Structure::postLoad, "postLoad"));
 					parser.setInactive();
 
 					return scriptInfo;
@@ -606,12 +570,124 @@ public class ScriptLoader {
 					throw Skript.exception(e);
 				} finally {
 					parser.setInactive();
+					ParseCache.save();
 
 					openCloseable.close();
 				}
 			});
 	}
 
+	/**
+	 * Calls a loading stage, such as {@link Structure#load()}, on the given structure,
+	 * removing it from its script's structures if that fails.
+	 *
+	 * @param parser the parser of the current thread.
+	 * @param pair the structure, paired with its script and that script's modifiable structures list.
+	 * @param stage the loading stage, returning whether it succeeded.
+	 * @param stageName the name of the loading stage, for error messages.
+	 * @return whether the stage succeeded.
+	 */
+	private static boolean runLoadingStage(
+		ParserInstance parser,
+		NonNullPair<NonNullPair<Script, List<Structure>>, Structure> pair,
+		Predicate<Structure> stage,
+		String stageName
+	) {
+		Structure structure = pair.getSecond();
+
+		parser.setActive(pair.getFirst().getFirst());
+		parser.setCurrentStructure(structure);
+		parser.setLocalVariableSlots(StructureSlots.get(pair.getFirst().getFirst(), structure));
+		parser.setNode(structure.getEntryContainer().getSource());
+
+		try {
+			if (!stage.test(structure)) {
+				pair.getFirst().getSecond().remove(structure);
+				return false;
+			}
+		} catch (Exception e) {
+			//noinspection ThrowableNotThrown
+			Skript.exception(e, "An error occurred while trying to " + stageName + " a Structure.");
+			pair.getFirst().getSecond().remove(structure);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Loads the given structures on the async loader threads.
+	 * The structures of each script are loaded one after another on one thread, in the given order,
+	 * while different scripts are loaded at the same time.
+	 * Structures are only loaded once all structures with a lower {@link Structure#getPriority() priority} have been loaded.
+	 * <br>
+	 * The structures that failed to load are removed from the given list once all have been loaded,
+	 * so the result does not depend on the order the threads finished in.
+	 *
+	 * @param pairs the structures paired with their scripts, sorted by priority.
+	 * @param openCloseable opened and closed around loading each script's structures.
+	 */
+	private static void loadStructuresInParallel(
+		List<NonNullPair<NonNullPair<Script, List<Structure>>, Structure>> pairs,
+		OpenCloseable openCloseable
+	) {
+		Set<Structure> failed = ConcurrentHashMap.newKeySet();
+
+		int start = 0;
+		while (start < pairs.size()) {
+			// Group the structures of the same priority by script, keeping their order
+			Priority priority = pairs.get(start).getSecond().getPriority();
+			Map<Script, List<NonNullPair<NonNullPair<Script, List<Structure>>, Structure>>> groups = new LinkedHashMap<>();
+			int end = start;
+			while (end < pairs.size() && pairs.get(end).getSecond().getPriority().compareTo(priority) == 0) {
+				NonNullPair<NonNullPair<Script, List<Structure>>, Structure> pair = pairs.get(end);
+				groups.computeIfAbsent(pair.getFirst().getFirst(), script -> new ArrayList<>()).add(pair);
+				end++;
+			}
+
+			List<CompletableFuture<Void>> futures = new ArrayList<>(groups.size());
+			for (List<NonNullPair<NonNullPair<Script, List<Structure>>, Structure>> group : groups.values()) {
+				CompletableFuture<Void> future = new CompletableFuture<>();
+				loadQueue.add(() -> {
+					ParserInstance parser = getParser();
+					try {
+						openCloseable.open();
+						try {
+							for (NonNullPair<NonNullPair<Script, List<Structure>>, Structure> pair : group) {
+								if (!runLoadingStage(parser, pair, Structure::load, "load"))
+									failed.add(pair.getSecond());
+							}
+						} finally {
+							parser.setInactive();
+							openCloseable.close();
+						}
+						future.complete(null);
+					} catch (Throwable t) {
+						future.completeExceptionally(t);
+						//noinspection ThrowableNotThrown
+						Skript.exception(t);
+					}
+				});
+				futures.add(future);
+			}
+
+			// This may be running on an async loader thread itself, so help out instead of only waiting
+			for (CompletableFuture<Void> future : futures) {
+				while (!future.isDone()) {
+					Runnable task = loadQueue.poll();
+					if (task == null) {
+						future.join(); // All tasks have been taken, so it's being executed by another thread
+						break;
+					}
+					task.run();
+				}
+			}
+
+			start = end;
+		}
+
+		pairs.removeIf(pair -> failed.contains(pair.getSecond()));
+	}
+
 	/**
 	 * Creates a script and loads the provided config into it.
 	 * @param config The config to load into a script.
@@ -625,45 +701,14 @@ public class ScriptLoader {
 		ParserInstance parser = getParser();
 		List<Structure> structures = new ArrayList<>();
 		Script script = new Script(config, structures);
+		ParseCache.startScript(script);
 		parser.setActive(script);
 
 		try {
 			if (SkriptConfig.keepConfigsLoaded.value())
 				SkriptConfig.configs.add(config);
 			
-			try (CountingLogHandler ignored = new CountingLogHandler(SkriptLogger.SEVERE).start()) {
-				for (Node cnode : config.getMainNode()) {
-					if (!(cnode instanceof SectionNode)) {
-						Skript.error("invalid line - all code has to be put into triggers");
-						continue;
-					}
-
-					SectionNode node = ((SectionNode) cnode);
-					String line = node.getKey();
-					if (line == null)
-						continue;
-
-					if (!SkriptParser.validateLine(line))
-						continue;
-
-					if (Skript.logVeryHigh() && !Skript.debug())
-						Skript.info("loading trigger '" + line + "'");
-
-					line = replaceOptions(line);
-
-					Structure structure = Structure.parse(line, node, "Can't understand this structure: " + line);
-
-					if (structure == null)
-						continue;
-
-					structures.add(structure);
-				}
-				
-				if (Skript.logHigh()) {
-					int count = structures.size();
-					Skript.info("loaded " + count + " structure" + (count == 1 ? "" : "s") + " from '" + config.getFileName() + "'");
-				}
-			}
+			parseStructures(script, structures);
 		} catch (Exception e) {
 			//noinspection ThrowableNotThrown
 			Skript.exception(e, "Could not load " + config.getFileName());
@@ -802,6 +847,257 @@ public class ScriptLoader {
 		return null;
 	}
 
+	/**
+	 * Parses the structures of the given script's config, without loading them.
+	 * The parser must be active on the given script.
+	 *
+	 * @param script the script.
+	 * @param structures the list to add the parsed structures to.
+	 */
+	private static void parseStructures(Script script, List<Structure> structures) {
+		ParserInstance parser = getParser();
+		Config config = script.getConfig();
+		StructureSources sources = SkriptConfig.incrementalReloading.value()
+			? script.getData(StructureSources.class, () -> new StructureSources(structures))
+			: null;
+
+		try (CountingLogHandler ignored = new CountingLogHandler(SkriptLogger.SEVERE).start()) {
+			for (Node cnode : config.getMainNode()) {
+				if (!(cnode instanceof SectionNode)) {
+					Skript.error("invalid line - all code has to be put into triggers");
+					continue;
+				}
+
+				SectionNode node = ((SectionNode) cnode);
+				String line = node.getKey();
+				if (line == null)
+					continue;
+
+				if (!SkriptParser.validateLine(line))
+					continue;
+
+				if (Skript.logVeryHigh() && !Skript.debug())
+					Skript.info("loading trigger '" + line + "'");
+
+				line = replaceOptions(line);
+
+				LocalVariableSlots slots = new LocalVariableSlots();
+				parser.setLocalVariableSlots(slots);
+				Structure structure = Structure.parse(line, node, "Can't understand this structure: " + line);
+
+				if (structure == null)
+					continue;
+
+				StructureSlots.put(script, structure, slots);
+				structures.add(structure);
+				if (sources != null)
+					sources.sources.put(structure, getSource(node));
+			}
+
+			if (Skript.logHigh()) {
+				int count = structures.size();
+				Skript.info("loaded " + count + " structure" + (count == 1 ? "" : "s") + " from '" + config.getFileName() + "'");
+			}
+		}
+	}
+
+	/**
+	 * The {@link LocalVariableSlots} of each structure of a script,
+	 * which are shared by all triggers of the structure throughout all of its loading stages.
+	 */
+	private static final class StructureSlots implements ScriptData {
+
+		private final Map<Structure, LocalVariableSlots> slots = Collections.synchronizedMap(new IdentityHashMap<>());
+
+		/**
+		 * @return the slots of the given structure, which are created if the structure doesn't have any yet,
+		 * e.g. if it wasn't parsed by the script loader.
+		 */
+		static LocalVariableSlots get(Script script, Structure structure) {
+			return script.getData(StructureSlots.class, StructureSlots::new).slots
+				.computeIfAbsent(structure, key -> new LocalVariableSlots());
+		}
+
+		static void put(Script script, Structure structure, LocalVariableSlots slots) {
+			script.getData(StructureSlots.class, StructureSlots::new).slots.put(structure, slots);
+		}
+
+		static void remove(Script script, Structure structure) {
+			StructureSlots data = script.getData(StructureSlots.class);
+			if (data != null)
+				data.slots.remove(structure);
+		}
+
+	}
+
+	/**
+	 * The source code of the structures of a script, used to find the structures that changed when it's reloaded.
+	 * Only present if {@link SkriptConfig#incrementalReloading incremental reloading} was enabled when the script was loaded.
+	 */
+	private static final class StructureSources implements ScriptData {
+
+		/**
+		 * The modifiable list of the script's structures.
+		 */
+		private final List<Structure> structures;
+
+		/**
+		 * The source code of each structure, as it was after the structure was parsed.
+		 */
+		private final Map<Structure, String> sources = Collections.synchronizedMap(new IdentityHashMap<>());
+
+		private StructureSources(List<Structure> structures) {
+			this.structures = structures;
+		}
+
+	}
+
+	/**
+	 * @param node the node of a structure.
+	 * @return the source code of the structure, including its comments.
+	 */
+	private static String getSource(SectionNode node) {
+		StringWriter writer = new StringWriter();
+		try (PrintWriter printWriter = new PrintWriter(writer)) {
+			node.save(printWriter);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Whether a structure only has to be reloaded if its own source code changed,
+	 * in which case it can be reloaded without reloading the rest of its script.
+	 * These are the events, except for script load events, as those are expected to be called on every reload.
+	 */
+	private static boolean isIndependent(Structure structure) {
+		return structure instanceof StructEvent && !(((StructEvent) structure).getSkriptEvent() instanceof EvtScript);
+	}
+
+	/**
+	 * Reloads the structures of the given script whose source code changed,
+	 * keeping the other structures loaded.
+	 * This is only possible if all structures that changed are {@link #isIndependent(Structure) independent}
+	 * of the rest of the script, the script doesn't contain script load events,
+	 * and the unchanged structures are still on the same lines.
+	 *
+	 * @param script the script to reload.
+	 * @param openCloseable see {@link #reloadScripts(Set, OpenCloseable)}.
+	 * @return info on the reloaded structures,
+	 * or null if the script has to be reloaded entirely, in which case nothing was changed.
+	 */
+	@Nullable
+	private static CompletableFuture<ScriptInfo> reloadChangedStructures(Script script, OpenCloseable openCloseable) {
+		StructureSources sources = script.getData(StructureSources.class);
+		File file = script.getConfig().getFile();
+		if (sources == null || file == null)
+			return null;
+
+		Config config = loadStructure(file);
+		if (config == null)
+			return null;
+
+		// Parse the new version of the script without loading it, its errors will be reported if it is loaded
+		ParserInstance parser = getParser();
+		List<Structure> parsed = new ArrayList<>();
+		Script parsedScript = new Script(config, parsed);
+		Collection<LogEntry> log;
+		try (RetainingLogHandler logHandler = SkriptLogger.startRetainingLog()) {
+			parser.setActive(parsedScript);
+			try {
+				parseStructures(parsedScript, parsed);
+			} finally {
+				parser.setInactive();
+			}
+			if (logHandler.hasErrors())
+				return null;
+			log = new ArrayList<>(logHandler.getLog());
+		}
+		StructureSources parsedSources = parsedScript.getData(StructureSources.class);
+		assert parsedSources != null;
+
+		// Match the new structures with the old ones that have the same source code
+		Map<String, Deque<Structure>> unchanged = new HashMap<>();
+		for (Structure structure : sources.structures) {
+			String source = sources.sources.get(structure);
+			if (source == null)
+				return null;
+			if (structure instanceof StructEvent && !isIndependent(structure)) // Script load events must be called again
+				return null;
+			unchanged.computeIfAbsent(source, k -> new ArrayDeque<>()).add(structure);
+		}
+		List<Structure> structures = new ArrayList<>(parsed.size());
+		List<Structure> added = new ArrayList<>();
+		for (Structure structure : parsed) {
+			String source = parsedSources.sources.get(structure);
+			Deque<Structure> matches = unchanged.get(source);
+			if (matches != null && !matches.isEmpty()) {
+				Structure kept = matches.poll();
+				// Kept structures keep their nodes and triggers, whose line numbers would be outdated if the structure moved
+				if (kept.getEntryContainer().getSource().getLine() != structure.getEntryContainer().getSource().getLine())
+					return null;
+				structures.add(kept);
+			} else {
+				if (!isIndependent(structure))
+					return null;
+				structures.add(structure);
+				added.add(structure);
+			}
+		}
+		List<Structure> removed = new ArrayList<>();
+		for (Deque<Structure> matches : unchanged.values())
+			removed.addAll(matches);
+		for (Structure structure : removed) {
+			if (!isIndependent(structure))
+				return null;
+		}
+
+		ParseCache.startScript(script);
+
+		// Unload the structures that were changed or removed
+		parser.setActive(script);
+		for (Structure structure : removed)
+			structure.unload();
+		for (Structure structure : removed) {
+			structure.postUnload();
+			sources.sources.remove(structure);
+			StructureSlots.remove(script, structure);
+		}
+		parser.setInactive();
+
+		sources.structures.clear();
+		sources.structures.addAll(structures);
+		for (Structure structure : added) {
+			sources.sources.put(structure, parsedSources.sources.get(structure));
+			// Keep the slots the structure was parsed with
+			StructureSlots.put(script, structure, StructureSlots.get(parsedScript, structure));
+		}
+
+		// Load the structures that were changed or added
+		return makeFuture(() -> {
+			ParserInstance loadingParser = getParser();
+			SkriptLogger.logAll(log);
+
+			NonNullPair<Script, List<Structure>> scriptPair = new NonNullPair<>(script, sources.structures);
+			List<NonNullPair<NonNullPair<Script, List<Structure>>, Structure>> pairs = added.stream()
+				.map(structure -> new NonNullPair<>(scriptPair, structure))
+				.sorted(Comparator.comparing(pair -> pair.getSecond().getPriority()))
+				.collect(Collectors.toCollection(ArrayList::new));
+			try {
+				pairs.removeIf(pair -> !runLoadingStage(loadingParser, pair, Structure::preLoad, "preLoad"));
+				pairs.removeIf(pair -> !runLoadingStage(loadingParser, pair, Structure::load, "load"));
+				pairs.removeIf(pair -> !runLoadingStage(loadingParser, pair, Structure::postLoad, "postLoad"));
+			} finally {
+				loadingParser.setInactive();
+				ParseCache.save();
+			}
+
+			if (Skript.logHigh())
+				Skript.info("reloaded " + pairs.size() + " of " + sources.structures.size() + " structures from '" + config.getFileName() + "'");
+
+			return new ScriptInfo(1, sources.structures.size());
+		}, openCloseable);
+	}
+
 	/*
 	 * Script Unloading Methods
 	 */
@@ -885,6 +1181,36 @@ public class ScriptLoader {
 	 * @return Info on the loaded Scripts.
 	 */
 	public static CompletableFuture<ScriptInfo> reloadScripts(Set<Script> scripts, OpenCloseable openCloseable) {
+		if (SkriptConfig.incrementalReloading.value()) {
+			List<CompletableFuture<ScriptInfo>> futures = new ArrayList<>();
+			Set<Script> fullReloads = new HashSet<>();
+			for (Script script : scripts) {
+				CompletableFuture<ScriptInfo> future = reloadChangedStructures(script, openCloseable);
+				if (future == null) {
+					fullReloads.add(script);
+				} else {
+					futures.add(future);
+				}
+			}
+			if (!fullReloads.isEmpty())
+				futures.add(reloadScripts_i(fullReloads, openCloseable));
+
+			return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+				.thenApply(unused -> {
+					ScriptInfo info = new ScriptInfo();
+					for (CompletableFuture<ScriptInfo> future : futures)
+						info.add(future.join());
+					return info;
+				});
+		}
+
+		return reloadScripts_i(scripts, openCloseable);
+	}
+
+	/**
+	 * Unloads the given scripts entirely, and loads them again.
+	 */
+	private static CompletableFuture<ScriptInfo> reloadScripts_i(Set<Script> scripts, OpenCloseable openCloseable) {
 		unloadScripts(scripts);
 
 		List<Config> configs = new ArrayList<>();
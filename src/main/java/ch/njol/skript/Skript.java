@@ -57,6 +57,7 @@ import ch.njol.skript.log.LogEntry;
 import ch.njol.skript.log.LogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.log.Verbosity;
+import ch.njol.skript.patterns.SyntaxIndex;
 import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.registrations.EventValues;
 import ch.njol.skript.test.runner.EffObjectives;
@@ -1320,6 +1321,14 @@ public final class Skript extends JavaPlugin implements Listener {
 		Converters.createChainedConverters();
 		acceptRegistrations = false;
 		Classes.onRegistrationsStop();
+
+		// The registered syntax elements can't change anymore
+		statementIndex = new SyntaxIndex<>(getStatements());
+		conditionIndex = new SyntaxIndex<>(getConditions());
+		effectIndex = new SyntaxIndex<>(getEffects());
+		List<ExpressionInfo<?, ?>> expressions = new ArrayList<>();
+		getExpressions().forEachRemaining(expressions::add);
+		expressionIndex = new SyntaxIndex<>(expressions);
 	}
 	
 	// ================ ADDONS ================
@@ -1538,18 +1547,56 @@ public final class Skript extends JavaPlugin implements Listener {
 	 */
 	@Deprecated
 	public static Iterator<ExpressionInfo<?, ?>> getExpressions(Class<?>... returnTypes) {
-		return new CheckedIterator<>(getExpressions(), i -> {
-			if (i == null || i.returnType == Object.class)
-				return true;
-
-			for (final Class<?> returnType : returnTypes) {
-				assert returnType != null;
-				if (Converters.converterExists(i.returnType, returnType))
-					return true;
-			}
+		return new CheckedIterator<>(getExpressions(), i -> i == null || i.canReturn(returnTypes));
+	}
 
-			return false;
-		});
+	// ================ SYNTAX INDEXES ================
+
+	@Nullable
+	private static SyntaxIndex<SyntaxElementInfo<? extends Statement>> statementIndex;
+	@Nullable
+	private static SyntaxIndex<SyntaxElementInfo<? extends Condition>> conditionIndex;
+	@Nullable
+	private static SyntaxIndex<SyntaxElementInfo<? extends Effect>> effectIndex;
+	@Nullable
+	private static SyntaxIndex<ExpressionInfo<?, ?>> expressionIndex;
+
+	/**
+	 * @return the keyword index of the registered statements, which is built when registrations are closed.
+	 * Before that, the currently registered statements are indexed on every call.
+	 */
+	public static SyntaxIndex<SyntaxElementInfo<? extends Statement>> getStatementIndex() {
+		SyntaxIndex<SyntaxElementInfo<? extends Statement>> index = statementIndex;
+		return index != null ? index : new SyntaxIndex<>(getStatements());
+	}
+
+	/**
+	 * @return the keyword index of the registered conditions, see {@link #getStatementIndex()}.
+	 */
+	public static SyntaxIndex<SyntaxElementInfo<? extends Condition>> getConditionIndex() {
+		SyntaxIndex<SyntaxElementInfo<? extends Condition>> index = conditionIndex;
+		return index != null ? index : new SyntaxIndex<>(getConditions());
+	}
+
+	/**
+	 * @return the keyword index of the registered effects, see {@link #getStatementIndex()}.
+	 */
+	public static SyntaxIndex<SyntaxElementInfo<? extends Effect>> getEffectIndex() {
+		SyntaxIndex<SyntaxElementInfo<? extends Effect>> index = effectIndex;
+		return index != null ? index : new SyntaxIndex<>(getEffects());
+	}
+
+	/**
+	 * @return the keyword index of the registered expressions, see {@link #getStatementIndex()}.
+	 * Expressions are filtered by their return type when they're parsed, see {@link ExpressionInfo#canReturn(Class[])}.
+	 */
+	public static SyntaxIndex<ExpressionInfo<?, ?>> getExpressionIndex() {
+		SyntaxIndex<ExpressionInfo<?, ?>> index = expressionIndex;
+		if (index != null)
+			return index;
+		List<ExpressionInfo<?, ?>> expressions = new ArrayList<>();
+		getExpressions().forEachRemaining(expressions::add);
+		return new SyntaxIndex<>(expressions);
 	}
 	
 	// ================ EVENTS ================
@@ -337,6 +337,12 @@ public class SkriptConfig {
 
 	public static final Option<Timespan> longParseTimeWarningThreshold = new Option<>("long parse time warning threshold", new Timespan(0));
 
+	public static final Option<Boolean> parseCache = new Option<>("parse cache", false)
+		.optional(true);
+
+	public static final Option<Boolean> incrementalReloading = new Option<>("incremental reloading", false)
+		.optional(true);
+
 	/**
 	 * This should only be used in special cases
 	 */
@@ -20,6 +20,8 @@ package ch.njol.skript;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -27,7 +29,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.event.Cancellable;
@@ -91,17 +93,67 @@ public final class SkriptEventHandler {
 	private static final Multimap<Class<? extends Event>, Trigger> triggers = ArrayListMultimap.create();
 
 	/**
-	 * A utility method to get all Triggers registered under the provided Event class.
+	 * A dispatch table mapping concrete Event classes to the Triggers that should be run for them,
+	 * indexed by {@link EventPriority#ordinal()}.
+	 * Entries are computed the first time an Event class is fired, and the whole table is discarded
+	 * whenever a Trigger is registered or unregistered.
+	 */
+	private static volatile Map<Class<? extends Event>, Trigger[][]> dispatchTable = new ConcurrentHashMap<>();
+
+	private static final Trigger[] NO_TRIGGERS = new Trigger[0];
+
+	/**
+	 * A utility method to get all Triggers registered under the provided Event class for the provided priority.
+	 * @param event The event to find pairs from.
+	 * @param priority The priority of the Triggers to get.
+	 * @return An array containing all Triggers registered under the provided Event class with the provided priority.
+	 *  This array is shared and must not be modified.
+	 */
+	private static Trigger[] getTriggers(Class<? extends Event> event, EventPriority priority) {
+		Map<Class<? extends Event>, Trigger[][]> dispatchTable = SkriptEventHandler.dispatchTable;
+		Trigger[][] eventTriggers = dispatchTable.get(event);
+		if (eventTriggers == null)
+			eventTriggers = dispatchTable.computeIfAbsent(event, SkriptEventHandler::createDispatchEntry);
+		return eventTriggers[priority.ordinal()];
+	}
+
+	/**
+	 * Collects all Triggers registered under the provided Event class, sorted by their priority.
 	 * @param event The event to find pairs from.
-	 * @return A List containing all Triggers registered under the provided Event class.
+	 * @return An array containing the Triggers for each {@link EventPriority}, indexed by its ordinal.
 	 */
-	private static List<Trigger> getTriggers(Class<? extends Event> event) {
+	private static Trigger[][] createDispatchEntry(Class<? extends Event> event) {
 		HandlerList eventHandlerList = getHandlerList(event);
 		assert eventHandlerList != null; // It had one at some point so this should remain true
-		return triggers.asMap().entrySet().stream()
-				.filter(entry -> entry.getKey().isAssignableFrom(event) && getHandlerList(entry.getKey()) == eventHandlerList)
-				.flatMap(entry -> entry.getValue().stream())
-				.collect(Collectors.toList()); // forces evaluation now and prevents us from having to call getTriggers again if very high logging is enabled
+
+		EventPriority[] priorities = EventPriority.values();
+		List<List<Trigger>> sortedTriggers = new ArrayList<>(priorities.length);
+		for (int i = 0; i < priorities.length; i++)
+			sortedTriggers.add(new ArrayList<>());
+
+		synchronized (triggers) {
+			for (Entry<Class<? extends Event>, Collection<Trigger>> entry : triggers.asMap().entrySet()) {
+				if (!entry.getKey().isAssignableFrom(event) || getHandlerList(entry.getKey()) != eventHandlerList)
+					continue;
+				for (Trigger trigger : entry.getValue())
+					sortedTriggers.get(trigger.getEvent().getEventPriority().ordinal()).add(trigger);
+			}
+		}
+
+		Trigger[][] eventTriggers = new Trigger[priorities.length][];
+		for (int i = 0; i < priorities.length; i++) {
+			List<Trigger> priorityTriggers = sortedTriggers.get(i);
+			eventTriggers[i] = priorityTriggers.isEmpty() ? NO_TRIGGERS : priorityTriggers.toArray(new Trigger[0]);
+		}
+		return eventTriggers;
+	}
+
+	/**
+	 * Discards all computed dispatch table entries.
+	 * Must be called whenever {@link #triggers} is modified.
+	 */
+	private static void invalidateDispatchTable() {
+		dispatchTable = new ConcurrentHashMap<>();
 	}
 
 	/**
@@ -112,18 +164,15 @@ public final class SkriptEventHandler {
 	 * @param priority The priority of the Event.
 	 */
 	private static void check(Event event, EventPriority priority) {
-		List<Trigger> triggers = getTriggers(event.getClass());
-		if (triggers.isEmpty())
+		Trigger[] triggers = getTriggers(event.getClass(), priority);
+		if (triggers.length == 0)
 			return;
 
 		if (Skript.logVeryHigh()) {
 			boolean hasTrigger = false;
 			for (Trigger trigger : triggers) {
 				SkriptEvent triggerEvent = trigger.getEvent();
-				if (
-					triggerEvent.getEventPriority() == priority
-					&& triggerEvent.canExecuteAsynchronously() ? triggerEvent.check(event) : Boolean.TRUE.equals(Task.callSync(() -> triggerEvent.check(event)))
-				) {
+				if (triggerEvent.canExecuteAsynchronously() ? triggerEvent.check(event) : Boolean.TRUE.equals(Task.callSync(() -> triggerEvent.check(event)))) {
 					hasTrigger = true;
 					break;
 				}
@@ -145,8 +194,6 @@ public final class SkriptEventHandler {
 
 		for (Trigger trigger : triggers) {
 			SkriptEvent triggerEvent = trigger.getEvent();
-			if (triggerEvent.getEventPriority() != priority)
-				continue;
 
 			// these methods need to be run on whatever thread the trigger is
 			Runnable execute = () -> {
@@ -256,7 +303,10 @@ public final class SkriptEventHandler {
 		if (handlerList == null)
 			return;
 
-		triggers.put(event, trigger);
+		synchronized (triggers) {
+			triggers.put(event, trigger);
+		}
+		invalidateDispatchTable();
 
 		EventPriority priority = trigger.getEvent().getEventPriority();
 
@@ -271,6 +321,13 @@ public final class SkriptEventHandler {
 	 * @param trigger The Trigger to unregister events for.
 	 */
 	public static void unregisterBukkitEvents(Trigger trigger) {
+		synchronized (triggers) {
+			unregisterBukkitEvents_i(trigger);
+		}
+		invalidateDispatchTable();
+	}
+
+	private static void unregisterBukkitEvents_i(Trigger trigger) {
 		Iterator<Entry<Class<? extends Event>, Trigger>> entryIterator = triggers.entries().iterator();
 		entryLoop: while (entryIterator.hasNext()) {
 			Entry<Class<? extends Event>, Trigger> entry = entryIterator.next();
@@ -73,6 +73,7 @@ public class ClassInfo<T> implements Debuggable {
 	private Serializer<? super T> serializer = null;
 	@Nullable
 	private Class<?> serializeAs = null;
+	private boolean asyncSerialization = false;
 	
 	@Nullable
 	private Arithmetic<? super T, ?> math = null;
@@ -214,6 +215,17 @@ public class ClassInfo<T> implements Debuggable {
 		return this;
 	}
 	
+	/**
+	 * Allows values of this class to be serialized off Bukkit's main thread, e.g. when saving variables.
+	 * <p>
+	 * Only use this if the {@link Serializer} does not access the server's state,
+	 * and values are either immutable or copied by this class's {@link #cloner(Cloner) cloner}.
+	 */
+	public ClassInfo<T> asyncSerialization() {
+		this.asyncSerialization = true;
+		return this;
+	}
+	
 	@Deprecated
 	public ClassInfo<T> changer(final SerializableChanger<? super T> changer) {
 		return changer((Changer<? super T>) changer);
@@ -396,6 +408,14 @@ public class ClassInfo<T> implements Debuggable {
 		return serializeAs;
 	}
 	
+	/**
+	 * @return Whether values of this class may be serialized off Bukkit's main thread.
+	 * @see #asyncSerialization()
+	 */
+	public boolean canSerializeAsync() {
+		return asyncSerialization && serializer != null;
+	}
+	
 	@Nullable
 	@Deprecated
 	public Arithmetic<? super T, ?> getMath() {
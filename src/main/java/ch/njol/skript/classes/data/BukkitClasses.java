@@ -452,7 +452,8 @@ public class BukkitClasses {
 						}
 					}
 				})
-				.cloner(Location::clone));
+				.cloner(Location::clone)
+				.asyncSerialization());
 		
 		Classes.registerClass(new ClassInfo<>(Vector.class, "vector")
 				.user("vectors?")
@@ -314,7 +314,8 @@ public class SkriptClasses {
 					public String toVariableNameString(final Timespan o) {
 						return "timespan:" + o.getMilliSeconds();
 					}
-				}).serializer(new YggdrasilSerializer<>()));
+				}).serializer(new YggdrasilSerializer<>())
+				.asyncSerialization());
 
 		// TODO remove
 		Classes.registerClass(new ClassInfo<>(Timeperiod.class, "timeperiod")
@@ -376,7 +377,9 @@ public class SkriptClasses {
 						"subtract a day from {_yesterday}",
 						"# now {_yesterday} represents the date 24 hours before now")
 				.since("1.4")
-				.serializer(new YggdrasilSerializer<>()));
+				.serializer(new YggdrasilSerializer<>())
+				.cloner(date -> new Date(date.getTimestamp()))
+				.asyncSerialization());
 
 		Classes.registerClass(new ClassInfo<>(Direction.class, "direction")
 				.user("directions?")
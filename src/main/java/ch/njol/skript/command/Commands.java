@@ -127,6 +127,13 @@ public abstract class Commands {
 		}
 	}
 
+	/**
+	 * Not supported with {@link ch.njol.skript.ScriptLoader#isParallel() parallel loading}, in which case this is always {@code null}.
+	 *
+	 * @deprecated The arguments of the command being parsed are bound to the {@link ParserInstance},
+	 * use {@link ch.njol.skript.structures.StructCommand.CommandData#getArguments()} instead.
+	 */
+	@Deprecated
 	@Nullable
 	public static List<Argument<?>> currentArguments = null;
 
@@ -293,6 +293,9 @@ public class ScriptCommand implements TabExecutor {
 	}
 
 	boolean execute2(final ScriptCommandEvent event, final CommandSender sender, final String commandLabel, final String rest) {
+		// Arguments are stored in local variables, which should use the trigger's slots
+		Variables.initLocalVariables(event, trigger.getLocalVariableSlots());
+
 		final ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
 			final boolean ok = SkriptParser.parseArguments(rest, ScriptCommand.this, event);
@@ -302,6 +305,7 @@ public class ScriptCommand implements TabExecutor {
 					sender.sendMessage(ChatColor.DARK_RED + e.toString());
 				sender.sendMessage(usage);
 				log.clear();
+				Variables.removeLocals(event);
 				return false;
 			}
 			log.clearError();
@@ -64,7 +64,7 @@ public class EffReturn extends Effect {
 	@SuppressWarnings("unchecked")
 	@Override
 	public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
-		ScriptFunction<?> f = Functions.currentFunction;
+		ScriptFunction<?> f = getParser().getData(Functions.FunctionData.class).getFunction();
 		if (f == null) {
 			Skript.error("The return statement can only be used in a function");
 			return false;
@@ -110,7 +110,7 @@ public class EffReturn extends Effect {
 	protected TriggerItem walk(Event event) {
 		debug(event, false);
 		if (event instanceof FunctionEvent) {
-			((ScriptFunction) function).setReturnValue(value.getArray(event));
+			((ScriptFunction) function).setReturnValue((FunctionEvent<?>) event, value.getArray(event));
 		} else {
 			assert false : event;
 		}
@@ -29,7 +29,6 @@ import org.eclipse.jdt.annotation.Nullable;
 import ch.njol.skript.Skript;
 import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.command.Argument;
-import ch.njol.skript.command.Commands;
 import ch.njol.skript.command.ScriptCommandEvent;
 import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
@@ -42,6 +41,7 @@ import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.util.SimpleExpression;
 import ch.njol.skript.log.ErrorQuality;
 import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.structures.StructCommand;
 import ch.njol.skript.util.Utils;
 import ch.njol.util.Kleenean;
 import ch.njol.util.StringUtils;
@@ -115,7 +115,7 @@ public class ExprArgument extends SimpleExpression<Object> {
 			return false;
 		}
 
-		List<Argument<?>> currentArguments = Commands.currentArguments;
+		List<Argument<?>> currentArguments = getParser().getData(StructCommand.CommandData.class).getArguments();
 		if (scriptCommand && (currentArguments == null || currentArguments.isEmpty())) {
 			Skript.error("This command doesn't have any arguments", ErrorQuality.SEMANTIC_ERROR);
 			return false;
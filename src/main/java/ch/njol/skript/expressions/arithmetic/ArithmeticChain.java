@@ -142,6 +142,10 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 				if (left == null || right == null)
 					return null;
 
+				NumericGettable numeric = NumericGettable.of(left, operator, right);
+				if (numeric != null)
+					return (ArithmeticGettable<T>) numeric;
+
 				OperationInfo<L, R, T> operationInfo = null;
 				if (left.getReturnType() != Object.class && right.getReturnType() != Object.class) {
 					operationInfo = (OperationInfo<L, R, T>) Arithmetics.lookupOperationInfo(operator, left.getReturnType(), right.getReturnType());
@@ -39,6 +39,10 @@ public class ArithmeticExpressionInfo<T> implements ArithmeticGettable<T> {
 		return object == null ? Arithmetics.getDefaultValue(expression.getReturnType()) : object;
 	}
 
+	Expression<? extends T> getExpression() {
+		return expression;
+	}
+
 	@Override
 	public Class<? extends T> getReturnType() {
 		return expression.getReturnType();
@@ -189,6 +189,13 @@ public class ExprArithmetic<L, R, T> extends SimpleExpression<T> {
 	@Override
 	@SuppressWarnings("unchecked")
 	protected T[] get(Event event) {
+		if (arithmeticGettable instanceof NumericGettable) {
+			// Only box the result, and don't create the array reflectively
+			NumericGettable numeric = (NumericGettable) arithmeticGettable;
+			if (numeric.isInteger())
+				return (T[]) new Long[] {numeric.getLong(event)};
+			return (T[]) new Double[] {numeric.getDouble(event)};
+		}
 		T result = arithmeticGettable.get(event);
 		T[] one = (T[]) Array.newInstance(result == null ? returnType : result.getClass(), 1);
 		one[0] = result;
@@ -0,0 +1,198 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.expressions.arithmetic;
+
+import ch.njol.skript.lang.Expression;
+import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.arithmetic.Arithmetics;
+import org.skriptlang.skript.lang.arithmetic.OperationInfo;
+import org.skriptlang.skript.lang.arithmetic.Operator;
+
+/**
+ * Calculates an arithmetic chain between numbers whose types are known while parsing
+ * using primitives, and only boxes the final result.
+ * <p>
+ * Integer operands are calculated as {@code long}s and other operands as {@code double}s,
+ * like {@link ch.njol.skript.classes.data.DefaultOperations the default number operations} do.
+ * Whether an operand is an integer is decided by its expression's return type rather than by its value.
+ */
+abstract class NumericGettable implements ArithmeticGettable<Number> {
+
+	private static final Class<?>[] INTEGER_CLASSES = {Long.class, Integer.class, Short.class, Byte.class};
+	private static final Class<?>[] DECIMAL_CLASSES = {Double.class, Float.class};
+
+	/**
+	 * @return whether this calculates a {@code long} rather than a {@code double}.
+	 */
+	abstract boolean isInteger();
+
+	/**
+	 * May only be called if this {@link #isInteger() is an integer}.
+	 */
+	abstract long getLong(Event event);
+
+	abstract double getDouble(Event event);
+
+	@Override
+	public Number get(Event event) {
+		if (isInteger())
+			return getLong(event);
+		return getDouble(event);
+	}
+
+	@Override
+	public Class<? extends Number> getReturnType() {
+		return isInteger() ? Long.class : Double.class;
+	}
+
+	/**
+	 * @return the given gettable as a numeric gettable,
+	 * or {@code null} if it isn't an expression or chain of a known number type.
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	static NumericGettable of(ArithmeticGettable<?> gettable) {
+		if (gettable instanceof NumericGettable)
+			return (NumericGettable) gettable;
+		if (!(gettable instanceof ArithmeticExpressionInfo))
+			return null;
+		Class<?> type = gettable.getReturnType();
+		for (Class<?> integerClass : INTEGER_CLASSES) {
+			if (integerClass == type)
+				return new ExpressionGettable(((ArithmeticExpressionInfo<? extends Number>) gettable).getExpression(), true);
+		}
+		for (Class<?> decimalClass : DECIMAL_CLASSES) {
+			if (decimalClass == type)
+				return new ExpressionGettable(((ArithmeticExpressionInfo<? extends Number>) gettable).getExpression(), false);
+		}
+		return null;
+	}
+
+	/**
+	 * @return a numeric gettable of the operation between the given gettables,
+	 * or {@code null} if it can't be calculated using primitives.
+	 */
+	@Nullable
+	static NumericGettable of(ArithmeticGettable<?> left, Operator operator, ArithmeticGettable<?> right) {
+		NumericGettable numericLeft = of(left);
+		NumericGettable numericRight = of(right);
+		if (numericLeft == null || numericRight == null)
+			return null;
+		// Whether the result of an integer exponentiation is an integer depends on the sign of the exponent
+		if (operator == Operator.EXPONENTIATION && numericLeft.isInteger() && numericRight.isInteger())
+			return null;
+		// Addons may have registered a more specific operation, e.g. for integers rather than longs
+		OperationInfo<?, ?, ?> operationInfo = Arithmetics.getOperationInfo(operator, left.getReturnType(), right.getReturnType());
+		if (operationInfo == null || operationInfo.getLeft() != Number.class || operationInfo.getRight() != Number.class)
+			return null;
+		return new ChainGettable(numericLeft, operator, numericRight);
+	}
+
+	private static final class ExpressionGettable extends NumericGettable {
+
+		private final Expression<? extends Number> expression;
+		private final boolean integer;
+
+		ExpressionGettable(Expression<? extends Number> expression, boolean integer) {
+			this.expression = expression;
+			this.integer = integer;
+		}
+
+		@Override
+		boolean isInteger() {
+			return integer;
+		}
+
+		// A missing value defaults to zero, like the default value of numbers
+
+		@Override
+		long getLong(Event event) {
+			Number number = expression.getSingle(event);
+			return number == null ? 0 : number.longValue();
+		}
+
+		@Override
+		double getDouble(Event event) {
+			Number number = expression.getSingle(event);
+			return number == null ? 0 : number.doubleValue();
+		}
+
+	}
+
+	private static final class ChainGettable extends NumericGettable {
+
+		private final NumericGettable left;
+		private final Operator operator;
+		private final NumericGettable right;
+		private final boolean integer;
+
+		ChainGettable(NumericGettable left, Operator operator, NumericGettable right) {
+			this.left = left;
+			this.operator = operator;
+			this.right = right;
+			integer = left.isInteger() && right.isInteger() && operator != Operator.DIVISION;
+		}
+
+		@Override
+		boolean isInteger() {
+			return integer;
+		}
+
+		@Override
+		long getLong(Event event) {
+			long left = this.left.getLong(event);
+			long right = this.right.getLong(event);
+			switch (operator) {
+				case ADDITION:
+					return left + right;
+				case SUBTRACTION:
+					return left - right;
+				case MULTIPLICATION:
+					return left * right;
+				default:
+					throw new IllegalStateException(operator.getName() + " of integers isn't an integer");
+			}
+		}
+
+		@Override
+		double getDouble(Event event) {
+			if (integer)
+				return getLong(event);
+			double left = this.left.getDouble(event);
+			double right = this.right.getDouble(event);
+			switch (operator) {
+				case ADDITION:
+					return left + right;
+				case SUBTRACTION:
+					return left - right;
+				case MULTIPLICATION:
+					return left * right;
+				case DIVISION:
+					return left / right;
+				case EXPONENTIATION:
+					return Math.pow(left, right);
+				default:
+					throw new IllegalStateException(String.valueOf(operator));
+			}
+		}
+
+	}
+
+}
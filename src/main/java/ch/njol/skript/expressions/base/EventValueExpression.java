@@ -19,9 +19,11 @@
 package ch.njol.skript.expressions.base;
 
 import java.lang.reflect.Array;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
@@ -78,7 +80,73 @@ public class EventValueExpression<T> extends SimpleExpression<T> implements Defa
 		Skript.registerExpression(expression, type, ExpressionType.EVENT, "[the] " + pattern);
 	}
 
-	private final Map<Class<? extends Event>, Getter<? extends T, ?>> getters = new HashMap<>();
+	/**
+	 * The getter to use for an event class, or {@code null} if there is none.
+	 */
+	private static final class ResolvedGetter<T> {
+
+		final Class<? extends Event> event;
+
+		@Nullable
+		final Getter<? extends T, ?> getter;
+
+		ResolvedGetter(Class<? extends Event> event, @Nullable Getter<? extends T, ?> getter) {
+			this.event = event;
+			this.getter = getter;
+		}
+
+	}
+
+	/**
+	 * The getters of this expression, which are never modified once created.
+	 * Default expressions are shared between triggers, so {@link #init()}
+	 * replaces the dispatch with one that contains the getters of both.
+	 */
+	private static final class Dispatch<T> {
+
+		/**
+		 * The getters for the events this expression has been initialized in.
+		 */
+		final Map<Class<? extends Event>, Getter<? extends T, ?>> getters;
+
+		/**
+		 * The getters for the event classes that have been resolved,
+		 * which may be subclasses of the events in {@link #getters}.
+		 */
+		final Map<Class<? extends Event>, ResolvedGetter<T>> resolved = new ConcurrentHashMap<>();
+
+		/**
+		 * The getter that was resolved last, as most expressions are only ever called with a single event class.
+		 */
+		@Nullable
+		volatile ResolvedGetter<T> last;
+
+		Dispatch(Map<Class<? extends Event>, Getter<? extends T, ?>> getters) {
+			this.getters = Collections.unmodifiableMap(getters);
+			for (Entry<Class<? extends Event>, Getter<? extends T, ?>> entry : getters.entrySet())
+				resolved.put(entry.getKey(), new ResolvedGetter<>(entry.getKey(), entry.getValue()));
+		}
+
+		ResolvedGetter<T> get(Class<? extends Event> event) {
+			ResolvedGetter<T> last = this.last;
+			if (last != null && last.event == event)
+				return last;
+			ResolvedGetter<T> resolved = this.resolved.computeIfAbsent(event, this::resolve);
+			this.last = resolved;
+			return resolved;
+		}
+
+		private ResolvedGetter<T> resolve(Class<? extends Event> event) {
+			for (Entry<Class<? extends Event>, Getter<? extends T, ?>> entry : getters.entrySet()) {
+				if (entry.getKey().isAssignableFrom(event))
+					return new ResolvedGetter<>(event, entry.getValue());
+			}
+			return new ResolvedGetter<>(event, null);
+		}
+
+	}
+
+	private volatile Dispatch<T> dispatch = new Dispatch<>(Collections.emptyMap());
 
 	private final Class<?> componentType;
 	private final Class<? extends T> type;
@@ -123,7 +191,7 @@ public class EventValueExpression<T> extends SimpleExpression<T> implements Defa
 	}
 
 	@Override
-	public boolean init() {
+	public synchronized boolean init() {
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
 			boolean hasValue = false;
@@ -132,6 +200,7 @@ public class EventValueExpression<T> extends SimpleExpression<T> implements Defa
 				assert false;
 				return false;
 			}
+			Map<Class<? extends Event>, Getter<? extends T, ?>> getters = new LinkedHashMap<>(dispatch.getters);
 			for (Class<? extends Event> event : events) {
 				if (getters.containsKey(event)) {
 					hasValue = getters.get(event) != null;
@@ -158,6 +227,8 @@ public class EventValueExpression<T> extends SimpleExpression<T> implements Defa
 				log.printError("There's no " + Classes.getSuperClassInfo(componentType).getName().toString(!single) + " in " + Utils.a(getParser().getCurrentEventName()) + " event");
 				return false;
 			}
+			if (getters.size() != dispatch.getters.size())
+				dispatch = new Dispatch<>(getters);
 			log.printLog();
 			return true;
 		} finally {
@@ -186,21 +257,8 @@ public class EventValueExpression<T> extends SimpleExpression<T> implements Defa
 	@Nullable
 	@SuppressWarnings("unchecked")
 	private <E extends Event> T getValue(E event) {
-		if (getters.containsKey(event.getClass())) {
-			final Getter<? extends T, ? super E> g = (Getter<? extends T, ? super E>) getters.get(event.getClass());
-			return g == null ? null : g.get(event);
-		}
-
-		for (final Entry<Class<? extends Event>, Getter<? extends T, ?>> p : getters.entrySet()) {
-			if (p.getKey().isAssignableFrom(event.getClass())) {
-				getters.put(event.getClass(), p.getValue());
-				return p.getValue() == null ? null : ((Getter<? extends T, ? super E>) p.getValue()).get(event);
-			}
-		}
-
-		getters.put(event.getClass(), null);
-
-		return null;
+		Getter<? extends T, ? super E> getter = (Getter<? extends T, ? super E>) dispatch.get(event.getClass()).getter;
+		return getter == null ? null : getter.get(event);
 	}
 
 	@Override
@@ -237,8 +295,10 @@ public class EventValueExpression<T> extends SimpleExpression<T> implements Defa
 			if (has) {
 				super.setTime(time);
 				// Since the time was changed, we now need to re-initialize the getters we already got. START
-				getters.clear();
-				init();
+				synchronized (this) {
+					dispatch = new Dispatch<>(Collections.emptyMap());
+					init();
+				}
 				// END
 				return true;
 			}
@@ -24,8 +24,6 @@ import ch.njol.util.Checker;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
-import java.util.Iterator;
-
 /**
  * A condition which must be fulfilled for the trigger to continue. If the condition is in a section the behaviour depends on the section.
  *
@@ -68,12 +66,11 @@ public abstract class Condition extends Statement {
 	}
 
 	@Nullable
-	@SuppressWarnings({"rawtypes", "unchecked"})
 	public static Condition parse(String input, @Nullable String defaultError) {
 		input = input.trim();
 		while (input.startsWith("(") && SkriptParser.next(input, 0, ParseContext.DEFAULT) == input.length())
 			input = input.substring(1, input.length() - 1);
-		return (Condition) SkriptParser.parse(input, (Iterator) Skript.getConditions().iterator(), defaultError);
+		return SkriptParser.parse(input, Skript.getConditionIndex(), defaultError);
 	}
 
 }
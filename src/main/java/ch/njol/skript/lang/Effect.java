@@ -25,8 +25,6 @@ import ch.njol.skript.log.SkriptLogger;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
-import java.util.Iterator;
-
 /**
  * An effect which is unconditionally executed when reached, and execution will usually continue with the next item of the trigger after this effect is executed (the stop effect
  * for example stops the trigger, i.e. nothing else will be executed after it)
@@ -51,7 +49,6 @@ public abstract class Effect extends Statement {
 	}
 
 	@Nullable
-	@SuppressWarnings({"rawtypes", "unchecked"})
 	public static Effect parse(String input, @Nullable String defaultError) {
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
@@ -72,7 +69,7 @@ public abstract class Effect extends Statement {
 			}
 			log.clear();
 
-			Effect effect = (Effect) SkriptParser.parse(input, (Iterator) Skript.getEffects().iterator(), defaultError);
+			Effect effect = SkriptParser.parse(input, Skript.getEffectIndex(), defaultError);
 			if (effect != null) {
 				log.printLog();
 				return effect;
@@ -19,6 +19,7 @@
 package ch.njol.skript.lang;
 
 import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.converter.Converters;
 
 /**
  * Represents an expression's information, for use when creating new instances of expressions.
@@ -47,6 +48,20 @@ public class ExpressionInfo<E extends Expression<T>, T> extends SyntaxElementInf
 		return returnType;
 	}
 
+	/**
+	 * @param returnTypes the types an expression is expected to return.
+	 * @return whether this expression can return values of any of the given types, possibly after converting them.
+	 */
+	public boolean canReturn(Class<?>... returnTypes) {
+		if (returnType == Object.class)
+			return true;
+		for (Class<?> type : returnTypes) {
+			if (Converters.converterExists(returnType, type))
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Get the type of this expression.
 	 * @return The type of this Expression
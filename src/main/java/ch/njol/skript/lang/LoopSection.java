@@ -18,7 +18,9 @@
  */
 package ch.njol.skript.lang;
 
+import com.google.common.collect.MapMaker;
 import org.bukkit.event.Event;
+import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Map;
 import java.util.WeakHashMap;
@@ -31,13 +33,69 @@ import java.util.WeakHashMap;
  */
 public abstract class LoopSection extends Section implements SyntaxElement, Debuggable, SectionExitHandler {
 
+	/**
+	 * The state of a loop in one execution of its trigger.
+	 * Loops that need more state can extend this.
+	 */
+	public static class LoopFrame {
+
+		private long counter;
+
+		/**
+		 * @return The number of the current iteration, starting at 1
+		 */
+		public long getCounter() {
+			return counter;
+		}
+
+		/**
+		 * Counts the start of the next iteration.
+		 */
+		public void nextIteration() {
+			counter++;
+		}
+
+	}
+
+	/**
+	 * The frames of the running executions of this loop, by their events.
+	 * Weak and thread-safe, as the same trigger may be executed for multiple async events at once.
+	 */
+	private final transient Map<Event, LoopFrame> frames = new MapMaker().weakKeys().makeMap();
+
+	/**
+	 * @deprecated Loop iterations are counted in {@link LoopFrame}s, see {@link #getFrame(Event)}.
+	 * Only used by loop sections that don't use frames.
+	 */
+	@Deprecated
 	protected final transient Map<Event, Long> currentLoopCounter = new WeakHashMap<>();
 
+	/**
+	 * @param event The event the loop is executed for
+	 * @return The frame of the execution of this loop, or null if the loop isn't being executed for the event
+	 */
+	@Nullable
+	protected LoopFrame getFrame(Event event) {
+		return frames.get(event);
+	}
+
+	/**
+	 * Starts an execution of this loop. The frame is removed when the loop is {@link #exit(Event) exited}.
+	 * @param event The event the loop is executed for
+	 * @param frame The frame of the execution
+	 */
+	protected void startFrame(Event event, LoopFrame frame) {
+		frames.put(event, frame);
+	}
+
 	/**
 	 * @param event The event where the loop is used to return its loop iterations
 	 * @return The loop iteration number
 	 */
 	public long getLoopCounter(Event event) {
+		LoopFrame frame = frames.get(event);
+		if (frame != null)
+			return frame.getCounter();
 		return currentLoopCounter.getOrDefault(event, 1L);
 	}
 
@@ -52,6 +110,7 @@ public abstract class LoopSection extends Section implements SyntaxElement, Debu
 	 */
 	@Override
 	public void exit(Event event) {
+		frames.remove(event);
 		currentLoopCounter.remove(event);
 	}
 
@@ -30,6 +30,7 @@ import ch.njol.skript.expressions.ExprParse;
 import ch.njol.skript.lang.function.ExprFunctionCall;
 import ch.njol.skript.lang.function.FunctionReference;
 import ch.njol.skript.lang.function.Functions;
+import ch.njol.skript.lang.parser.ParseCache;
 import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.lang.util.SimpleLiteral;
 import ch.njol.skript.localization.Language;
@@ -38,9 +39,11 @@ import ch.njol.skript.log.ErrorQuality;
 import ch.njol.skript.log.LogEntry;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.patterns.ExpressionKeywords;
 import ch.njol.skript.patterns.MalformedPatternException;
 import ch.njol.skript.patterns.PatternCompiler;
 import ch.njol.skript.patterns.SkriptPattern;
+import ch.njol.skript.patterns.SyntaxIndex;
 import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.util.Utils;
 import ch.njol.util.Kleenean;
@@ -54,14 +57,19 @@ import org.skriptlang.skript.lang.script.Script;
 import org.skriptlang.skript.lang.script.ScriptWarning;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -183,6 +191,38 @@ public class SkriptParser {
 		}
 	}
 
+	/**
+	 * Parses a string as one of the syntax elements of the given index,
+	 * only matching it against the patterns whose keywords it contains.
+	 * <p>
+	 * Can print an error.
+	 */
+	@Nullable
+	public static <T extends SyntaxElement> T parse(String expr, SyntaxIndex<? extends SyntaxElementInfo<? extends T>> index, @Nullable String defaultError) {
+		return parse(expr, index, info -> true, defaultError);
+	}
+
+	@Nullable
+	private static <T extends SyntaxElement, I extends SyntaxElementInfo<? extends T>> T parse(String expr, SyntaxIndex<I> index, Predicate<? super I> filter, @Nullable String defaultError) {
+		expr = "" + expr.trim();
+		if (expr.isEmpty()) {
+			Skript.error(defaultError);
+			return null;
+		}
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			T element = new SkriptParser(expr).parse(index, filter);
+			if (element != null) {
+				log.printLog();
+				return element;
+			}
+			log.printError(defaultError);
+			return null;
+		} finally {
+			log.stop();
+		}
+	}
+
 	@Nullable
 	public static <T extends SyntaxElement> T parseStatic(String expr, Iterator<? extends SyntaxElementInfo<? extends T>> source, @Nullable String defaultError) {
 		return parseStatic(expr, source, ParseContext.DEFAULT, defaultError);
@@ -211,63 +251,77 @@ public class SkriptParser {
 		}
 	}
 
+	/**
+	 * Parses a statement as one of the given syntax elements,
+	 * first trying the pattern it was parsed as the last time its script was loaded, see {@link ParseCache}.
+	 * <p>
+	 * Can print an error.
+	 */
+	@Nullable
+	public static <T extends SyntaxElement> T parseCached(String expr, SyntaxIndex<? extends SyntaxElementInfo<? extends T>> index, @Nullable String defaultError) {
+		expr = "" + expr.trim();
+		if (expr.isEmpty()) {
+			Skript.error(defaultError);
+			return null;
+		}
+
+		ParseCache.Hint hint = ParseCache.getHint(expr);
+		if (hint != null) {
+			SyntaxElementInfo<? extends T> info = hint.find(index.getInfos());
+			if (info != null) {
+				ParseLogHandler log = SkriptLogger.startParseLogHandler();
+				try {
+					T element = new SkriptParser(expr).parse(info, hint.getPatternIndex(), new ExpressionKeywords(expr));
+					if (element != null) {
+						log.printLog();
+						return element;
+					}
+				} finally {
+					// If the statement can't be parsed as the remembered pattern anymore, its errors are discarded
+					log.stop();
+				}
+			}
+		}
+
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			SkriptParser parser = new SkriptParser(expr);
+			T element = parser.parse(index, info -> true);
+			if (element != null) {
+				SyntaxElementInfo<?> parsedInfo = parser.parsedInfo;
+				assert parsedInfo != null;
+				ParseCache.record(expr, parsedInfo, parser.parsedPatternIndex);
+				log.printLog();
+				return element;
+			}
+			log.printError(defaultError);
+			return null;
+		} finally {
+			log.stop();
+		}
+	}
+
+	/**
+	 * The syntax element and the index of its pattern the last {@link #parse(SyntaxIndex, Predicate)} parsed the expression as.
+	 */
+	@Nullable
+	private SyntaxElementInfo<?> parsedInfo;
+	private int parsedPatternIndex;
+
 	@Nullable
 	private <T extends SyntaxElement> T parse(Iterator<? extends SyntaxElementInfo<? extends T>> source) {
+		// The patterns are only matched if all of their keywords appear in the expression
+		ExpressionKeywords keywords = new ExpressionKeywords(expr);
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
 			while (source.hasNext()) {
 				SyntaxElementInfo<? extends T> info = source.next();
-				patternsLoop: for (int patternIndex = 0; patternIndex < info.patterns.length; patternIndex++) {
+				for (int patternIndex = 0; patternIndex < info.patterns.length; patternIndex++) {
 					log.clear();
-					try {
-						String pattern = info.patterns[patternIndex];
-						assert pattern != null;
-						ParseResult parseResult;
-						try {
-							parseResult = parse_i(pattern);
-						} catch (MalformedPatternException e) {
-							String message = "pattern compiling exception, element class: " + info.getElementClass().getName();
-							try {
-								JavaPlugin providingPlugin = JavaPlugin.getProvidingPlugin(info.getElementClass());
-								message += " (provided by " + providingPlugin.getName() + ")";
-							} catch (IllegalArgumentException | IllegalStateException ignored) {}
-							throw new RuntimeException(message, e);
-
-						}
-						if (parseResult != null) {
-							int startIndex = -1;
-							for (int i = 0; (startIndex = nextUnescaped(pattern, '%', startIndex + 1)) != -1; i++) {
-								int endIndex = nextUnescaped(pattern, '%', startIndex + 1);
-								if (parseResult.exprs[i] == null) {
-									String name = pattern.substring(startIndex + 1, endIndex);
-									if (!name.startsWith("-")) {
-										ExprInfo exprInfo = getExprInfo(name);
-										DefaultExpression<?> expr = exprInfo.classes[0].getDefaultExpression();
-										if (expr == null)
-											throw new SkriptAPIException("The class '" + exprInfo.classes[0].getCodeName() + "' does not provide a default expression. Either allow null (with %-" + exprInfo.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[patternIndex] + "]");
-										if (!(expr instanceof Literal) && (exprInfo.flagMask & PARSE_EXPRESSIONS) == 0)
-											throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is not a literal. Either allow null (with %-*" + exprInfo.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[patternIndex] + "]");
-										if (expr instanceof Literal && (exprInfo.flagMask & PARSE_LITERALS) == 0)
-											throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is a literal. Either allow null (with %-~" + exprInfo.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[patternIndex] + "]");
-										if (!exprInfo.isPlural[0] && !expr.isSingle())
-											throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is not a single-element expression. Change your pattern to allow multiple elements or make the expression mandatory [pattern: " + info.patterns[patternIndex] + "]");
-										if (exprInfo.time != 0 && !expr.setTime(exprInfo.time))
-											throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' does not have distinct time states. [pattern: " + info.patterns[patternIndex] + "]");
-										if (!expr.init())
-											continue patternsLoop;
-										parseResult.exprs[i] = expr;
-									}
-								}
-								startIndex = endIndex;
-							}
-							T element = info.getElementClass().newInstance();
-							if (element.init(parseResult.exprs, patternIndex, getParser().getHasDelayBefore(), parseResult)) {
-								log.printLog();
-								return element;
-							}
-						}
-					} catch (InstantiationException | IllegalAccessException e) {
-						assert false;
+					T element = parse(info, patternIndex, keywords);
+					if (element != null) {
+						log.printLog();
+						return element;
 					}
 				}
 			}
@@ -278,6 +332,121 @@ public class SkriptParser {
 		}
 	}
 
+	/**
+	 * Parses the expression as one of the syntax elements of the given index that pass the given filter,
+	 * only visiting the patterns whose keywords the expression contains, in registration order.
+	 */
+	@Nullable
+	private <T extends SyntaxElement, I extends SyntaxElementInfo<? extends T>> T parse(SyntaxIndex<I> index, Predicate<? super I> filter) {
+		ExpressionKeywords keywords = new ExpressionKeywords(expr);
+		BitSet candidates = index.candidates(keywords);
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			@Nullable I filtered = null;
+			boolean accepted = false;
+			for (int entry = candidates.nextSetBit(0); entry >= 0; entry = candidates.nextSetBit(entry + 1)) {
+				I info = index.getInfo(entry);
+				// The patterns of a syntax element are next to each other, so it's only filtered once
+				if (info != filtered) {
+					filtered = info;
+					accepted = filter.test(info);
+				}
+				if (!accepted)
+					continue;
+
+				int patternIndex = index.getPatternIndex(entry);
+				SkriptPattern pattern = index.getPattern(entry);
+				log.clear();
+				T element = pattern == null ? parse(info, patternIndex, keywords) : parse(info, patternIndex, pattern, keywords);
+				if (element != null) {
+					parsedInfo = info;
+					parsedPatternIndex = patternIndex;
+					log.printLog();
+					return element;
+				}
+			}
+			log.printError();
+			return null;
+		} finally {
+			log.stop();
+		}
+	}
+
+	/**
+	 * Parses the expression as the given pattern of the given syntax element.
+	 *
+	 * @param keywords the keywords of the expression, see {@link ExpressionKeywords}.
+	 * @return the initialized syntax element, or {@code null} if the expression doesn't match the pattern
+	 * or the syntax element couldn't be initialized.
+	 */
+	@Nullable
+	private <T extends SyntaxElement> T parse(SyntaxElementInfo<? extends T> info, int patternIndex, ExpressionKeywords keywords) {
+		String pattern = info.patterns[patternIndex];
+		assert pattern != null;
+		SkriptPattern skriptPattern;
+		try {
+			skriptPattern = patterns.computeIfAbsent(pattern, PatternCompiler::compile);
+		} catch (MalformedPatternException e) {
+			String message = "pattern compiling exception, element class: " + info.getElementClass().getName();
+			try {
+				JavaPlugin providingPlugin = JavaPlugin.getProvidingPlugin(info.getElementClass());
+				message += " (provided by " + providingPlugin.getName() + ")";
+			} catch (IllegalArgumentException | IllegalStateException ignored) {}
+			throw new RuntimeException(message, e);
+		}
+		return parse(info, patternIndex, skriptPattern, keywords);
+	}
+
+	/**
+	 * Parses the expression as the given compiled pattern of the given syntax element.
+	 *
+	 * @param skriptPattern the compiled pattern at the given index of the syntax element.
+	 * @param keywords the keywords of the expression, see {@link ExpressionKeywords}.
+	 * @return the initialized syntax element, or {@code null} if the expression doesn't match the pattern
+	 * or the syntax element couldn't be initialized.
+	 */
+	@Nullable
+	private <T extends SyntaxElement> T parse(SyntaxElementInfo<? extends T> info, int patternIndex, SkriptPattern skriptPattern, ExpressionKeywords keywords) {
+		try {
+			String pattern = info.patterns[patternIndex];
+			ch.njol.skript.patterns.MatchResult matchResult = skriptPattern.match(expr, flags, context, keywords);
+			ParseResult parseResult = matchResult == null ? null : matchResult.toParseResult();
+			if (parseResult != null) {
+				int startIndex = -1;
+				for (int i = 0; (startIndex = nextUnescaped(pattern, '%', startIndex + 1)) != -1; i++) {
+					int endIndex = nextUnescaped(pattern, '%', startIndex + 1);
+					if (parseResult.exprs[i] == null) {
+						String name = pattern.substring(startIndex + 1, endIndex);
+						if (!name.startsWith("-")) {
+							ExprInfo exprInfo = getExprInfo(name);
+							DefaultExpression<?> expr = exprInfo.classes[0].getDefaultExpression();
+							if (expr == null)
+								throw new SkriptAPIException("The class '" + exprInfo.classes[0].getCodeName() + "' does not provide a default expression. Either allow null (with %-" + exprInfo.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[patternIndex] + "]");
+							if (!(expr instanceof Literal) && (exprInfo.flagMask & PARSE_EXPRESSIONS) == 0)
+								throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is not a literal. Either allow null (with %-*" + exprInfo.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[patternIndex] + "]");
+							if (expr instanceof Literal && (exprInfo.flagMask & PARSE_LITERALS) == 0)
+								throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is a literal. Either allow null (with %-~" + exprInfo.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + info.patterns[patternIndex] + "]");
+							if (!exprInfo.isPlural[0] && !expr.isSingle())
+								throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is not a single-element expression. Change your pattern to allow multiple elements or make the expression mandatory [pattern: " + info.patterns[patternIndex] + "]");
+							if (exprInfo.time != 0 && !expr.setTime(exprInfo.time))
+								throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' does not have distinct time states. [pattern: " + info.patterns[patternIndex] + "]");
+							if (!expr.init())
+								return null;
+							parseResult.exprs[i] = expr;
+						}
+					}
+					startIndex = endIndex;
+				}
+				T element = info.getElementClass().newInstance();
+				if (element.init(parseResult.exprs, patternIndex, getParser().getHasDelayBefore(), parseResult))
+					return element;
+			}
+		} catch (InstantiationException | IllegalAccessException e) {
+			assert false;
+		}
+		return null;
+	}
+
 	private static final Pattern VARIABLE_PATTERN = Pattern.compile("((the )?var(iable)? )?\\{.+\\}", Pattern.CASE_INSENSITIVE);
 
 	/**
@@ -312,14 +481,148 @@ public class SkriptParser {
 		if (expr.startsWith("\"") && expr.length() != 1 && nextQuote(expr, 1) == expr.length() - 1) {
 			return VariableString.newInstance("" + expr.substring(1, expr.length() - 1));
 		} else {
-			return (Expression<?>) parse(expr, (Iterator) Skript.getExpressions(types), null);
+			return parse(expr, Skript.getExpressionIndex(), info -> info.canReturn(types), null);
 		}
 	}
 
 
+	/**
+	 * Identifies an attempt to parse a sub-expression,
+	 * see {@link ParserInstance#getFailedParses()}.
+	 */
+	private static final class ParseKey {
+
+		/**
+		 * The kinds of parse attempts.
+		 */
+		static final int SINGLE = 0, SINGLE_OR_UNPARSED_LITERAL = 1, LIST = 2;
+
+		private final String expr;
+		private final int flags;
+		private final ParseContext context;
+		private final int kind;
+		private final Object[] types;
+		private final boolean @Nullable [] isPlural;
+		private final int flagMask;
+
+		/**
+		 * The default error passed by the caller, which may end up in the parsed {@link UnparsedLiteral},
+		 * compared by content since callers create a new one for every attempt.
+		 */
+		@Nullable
+		private final Level errorLevel;
+		private final int errorQuality;
+		@Nullable
+		private final String errorMessage;
+
+		ParseKey(SkriptParser parser, int kind, Class<?>[] types) {
+			this(parser, kind, types, null, 0, null);
+		}
+
+		ParseKey(SkriptParser parser, int kind, Class<?>[] types, @Nullable LogEntry error) {
+			this(parser, kind, types, null, 0, error);
+		}
+
+		ParseKey(SkriptParser parser, int kind, ExprInfo exprInfo) {
+			this(parser, kind, exprInfo, null);
+		}
+
+		ParseKey(SkriptParser parser, int kind, ExprInfo exprInfo, @Nullable LogEntry error) {
+			this(parser, kind, exprInfo.classes.clone(), exprInfo.isPlural.clone(), exprInfo.flagMask, error);
+		}
+
+		private ParseKey(SkriptParser parser, int kind, Object[] types, boolean @Nullable [] isPlural, int flagMask, @Nullable LogEntry error) {
+			this.expr = parser.expr;
+			this.flags = parser.flags;
+			this.context = parser.context;
+			this.kind = kind;
+			this.types = types;
+			this.isPlural = isPlural;
+			this.flagMask = flagMask;
+			this.errorLevel = error == null ? null : error.level;
+			this.errorQuality = error == null ? 0 : error.quality;
+			this.errorMessage = error == null ? null : error.message;
+		}
+
+		@Override
+		public boolean equals(@Nullable Object object) {
+			if (this == object)
+				return true;
+			if (!(object instanceof ParseKey))
+				return false;
+			ParseKey other = (ParseKey) object;
+			return flags == other.flags && kind == other.kind && flagMask == other.flagMask
+					&& context == other.context && expr.equals(other.expr)
+					&& Arrays.equals(types, other.types) && Arrays.equals(isPlural, other.isPlural)
+					&& errorQuality == other.errorQuality && Objects.equals(errorLevel, other.errorLevel)
+					&& Objects.equals(errorMessage, other.errorMessage);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = expr.hashCode();
+			result = 31 * result + flags;
+			result = 31 * result + context.hashCode();
+			result = 31 * result + kind;
+			result = 31 * result + Arrays.hashCode(types);
+			result = 31 * result + Arrays.hashCode(isPlural);
+			result = 31 * result + flagMask;
+			return 31 * result + Objects.hashCode(errorMessage);
+		}
+
+	}
+
+	/**
+	 * Parses a sub-expression, unless the same parse already failed on the current node,
+	 * in which case the error it logged is logged again.
+	 * The same sub-expressions are often parsed many times while matching the patterns of a line.
+	 * <p>
+	 * A failed attempt only passes its best error on to the enclosing log handler
+	 * (see {@link ParseLogHandler#printError()}), so that error is all that needs to be kept to replay it.
+	 * Anything else the attempt logged is discarded just as it would be without the cache.
+	 *
+	 * @param key identifies the parse attempt.
+	 * @param parser does the actual parsing.
+	 * @return the parsed expression, or {@code null} if it couldn't be parsed.
+	 */
 	@Nullable
-	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static <T> T parseOnce(ParseKey key, Supplier<@Nullable T> parser) {
+		Map<Object, @Nullable LogEntry> failedParses = getParser().getFailedParses();
+		if (failedParses == null)
+			return parser.get();
+
+		if (failedParses.containsKey(key)) {
+			LogEntry error = failedParses.get(key);
+			if (error != null)
+				SkriptLogger.log(new LogEntry(error.level, error.quality, error.message, error.node));
+			return null;
+		}
+
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		try {
+			T parsed = parser.get();
+			if (parsed != null) {
+				log.printLog();
+				return parsed;
+			}
+			failedParses.put(key, log.getError());
+			log.printError();
+			return null;
+		} finally {
+			log.stop();
+		}
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
 	private <T> Expression<? extends T> parseSingleExpr(boolean allowUnparsedLiteral, @Nullable LogEntry error, Class<? extends T>... types) {
+		int kind = allowUnparsedLiteral ? ParseKey.SINGLE_OR_UNPARSED_LITERAL : ParseKey.SINGLE;
+		return parseOnce(new ParseKey(this, kind, types, error), () -> parseSingleExpr_i(allowUnparsedLiteral, error, types));
+	}
+
+	@Nullable
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private <T> Expression<? extends T> parseSingleExpr_i(boolean allowUnparsedLiteral, @Nullable LogEntry error, Class<? extends T>[] types) {
 		assert types.length > 0;
 		assert types.length == 1 || !CollectionUtils.contains(types, Object.class);
 		if (expr.isEmpty())
@@ -411,6 +714,12 @@ public class SkriptParser {
 
 	@Nullable
 	private Expression<?> parseSingleExpr(boolean allowUnparsedLiteral, @Nullable LogEntry error, ExprInfo exprInfo) {
+		int kind = allowUnparsedLiteral ? ParseKey.SINGLE_OR_UNPARSED_LITERAL : ParseKey.SINGLE;
+		return parseOnce(new ParseKey(this, kind, exprInfo, error), () -> parseSingleExpr_i(allowUnparsedLiteral, error, exprInfo));
+	}
+
+	@Nullable
+	private Expression<?> parseSingleExpr_i(boolean allowUnparsedLiteral, @Nullable LogEntry error, ExprInfo exprInfo) {
 		if (expr.isEmpty()) // Empty expressions return nothing, obviously
 			return null;
 
@@ -621,6 +930,12 @@ public class SkriptParser {
 	@Nullable
 	@SuppressWarnings("unchecked")
 	public <T> Expression<? extends T> parseExpression(Class<? extends T>... types) {
+		return parseOnce(new ParseKey(this, ParseKey.LIST, types), () -> parseExpression_i(types));
+	}
+
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private <T> Expression<? extends T> parseExpression_i(Class<? extends T>[] types) {
 		if (expr.length() == 0)
 			return null;
 
@@ -742,6 +1057,11 @@ public class SkriptParser {
 
 	@Nullable
 	public Expression<?> parseExpression(ExprInfo exprInfo) {
+		return parseOnce(new ParseKey(this, ParseKey.LIST, exprInfo), () -> parseExpression_i(exprInfo));
+	}
+
+	@Nullable
+	private Expression<?> parseExpression_i(ExprInfo exprInfo) {
 		if (expr.length() == 0)
 			return null;
 
@@ -1365,7 +1685,7 @@ public class SkriptParser {
 		public int time = 0;
 	}
 
-	private static final Map<String,ExprInfo> exprInfoCache = new HashMap<>();
+	private static final Map<String,ExprInfo> exprInfoCache = new ConcurrentHashMap<>();
 
 	private static ExprInfo getExprInfo(String string) throws IllegalArgumentException, SkriptAPIException {
 		ExprInfo exprInfo = exprInfoCache.get(string);
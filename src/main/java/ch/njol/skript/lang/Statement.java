@@ -24,8 +24,6 @@ import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import org.eclipse.jdt.annotation.Nullable;
 
-import java.util.Iterator;
-
 /**
  * Supertype of conditions and effects
  *
@@ -35,7 +33,6 @@ import java.util.Iterator;
 public abstract class Statement extends TriggerItem implements SyntaxElement {
 
 	@Nullable
-	@SuppressWarnings({"rawtypes", "unchecked"})
 	public static Statement parse(String input, String defaultError) {
 		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
@@ -56,7 +53,7 @@ public abstract class Statement extends TriggerItem implements SyntaxElement {
 			}
 			log.clear();
 
-			Statement statement = (Statement) SkriptParser.parse(input, (Iterator) Skript.getStatements().iterator(), defaultError);
+			Statement statement = SkriptParser.parseCached(input, Skript.getStatementIndex(), defaultError);
 			if (statement != null) {
 				log.printLog();
 				return statement;
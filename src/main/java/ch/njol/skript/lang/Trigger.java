@@ -19,6 +19,8 @@
 package ch.njol.skript.lang;
 
 import org.skriptlang.skript.lang.script.Script;
+import ch.njol.skript.lang.parser.ParserInstance;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.skript.variables.Variables;
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -34,6 +36,7 @@ public class Trigger extends TriggerSection {
 	private final Script script;
 	private int line = -1; // -1 is default: it means there is no line number available
 	private String debugLabel;
+	private final LocalVariableSlots localVariableSlots;
 
 	public Trigger(@Nullable Script script, String name, SkriptEvent event, List<TriggerItem> items) {
 		super(items);
@@ -41,6 +44,9 @@ public class Trigger extends TriggerSection {
 		this.name = name;
 		this.event = event;
 		this.debugLabel = "unknown trigger";
+
+		ParserInstance parser = ParserInstance.get();
+		this.localVariableSlots = parser.isActive() ? parser.getLocalVariableSlots() : LocalVariableSlots.EMPTY;
 	}
 
 	/**
@@ -49,6 +55,9 @@ public class Trigger extends TriggerSection {
 	 * @return false if an exception occurred.
 	 */
 	public boolean execute(Event event) {
+		if (localVariableSlots.size() != 0)
+			Variables.initLocalVariables(event, localVariableSlots);
+
 		boolean success = TriggerItem.walk(this, event);
 
 		// Clear local variables
@@ -123,4 +132,11 @@ public class Trigger extends TriggerSection {
 		return debugLabel;
 	}
 
+	/**
+	 * @return The slots of the local variables used in this trigger whose names are known at parse time.
+	 */
+	public LocalVariableSlots getLocalVariableSlots() {
+		return localVariableSlots;
+	}
+
 }
@@ -37,11 +37,33 @@ import java.io.File;
  */
 public abstract class TriggerItem implements Debuggable {
 
+	/**
+	 * Whether each class of trigger items uses the default {@link #walk(Event)},
+	 * i.e. whether walking an item of it is the same as calling {@link #run(Event)} and debugging the result.
+	 */
+	private static final ClassValue<Boolean> DEFAULT_WALK = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (Class<?> c = type; c != null && c != TriggerItem.class; c = c.getSuperclass()) {
+				try {
+					c.getDeclaredMethod("walk", Event.class);
+					return false;
+				} catch (NoSuchMethodException ignored) {}
+			}
+			return true;
+		}
+	};
+
 	@Nullable
 	protected TriggerSection parent = null;
 	@Nullable
 	private TriggerItem next = null;
 
+	/**
+	 * Whether this item uses the default {@link #walk(Event)}, see {@link #DEFAULT_WALK}.
+	 */
+	private final boolean defaultWalk = DEFAULT_WALK.get(getClass());
+
 	protected TriggerItem() {}
 
 	protected TriggerItem(TriggerSection parent) {
@@ -84,8 +106,24 @@ public abstract class TriggerItem implements Debuggable {
 	public static boolean walk(TriggerItem start, Event event) {
 		TriggerItem triggerItem = start;
 		try {
-			while (triggerItem != null)
-				triggerItem = triggerItem.walk(event);
+			if (Skript.debug()) {
+				while (triggerItem != null)
+					triggerItem = triggerItem.walk(event);
+			} else {
+				// Nothing has to be debugged, so the items that use the default walk can be run directly
+				while (triggerItem != null) {
+					if (triggerItem.defaultWalk) {
+						if (triggerItem.run(event)) {
+							triggerItem = triggerItem.next;
+						} else {
+							TriggerSection parent = triggerItem.parent;
+							triggerItem = parent == null ? null : parent.getNext();
+						}
+					} else {
+						triggerItem = triggerItem.walk(event);
+					}
+				}
+			}
 
 			return true;
 		} catch (StackOverflowError err) {
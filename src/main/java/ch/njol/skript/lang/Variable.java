@@ -23,10 +23,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
-import java.util.TreeMap;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
@@ -45,6 +45,7 @@ import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.structures.StructVariables.DefaultVariables;
 import ch.njol.skript.util.StringMode;
 import ch.njol.skript.util.Utils;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.skript.variables.TypeHints;
 import ch.njol.skript.variables.Variables;
 import ch.njol.util.Checker;
@@ -91,6 +92,18 @@ public class Variable<T> implements Expression<T> {
 	@Nullable
 	private final Variable<?> source;
 
+	/**
+	 * The slots this variable was assigned in if it is a local variable with a name known at parse time,
+	 * {@code null} otherwise.
+	 */
+	@Nullable
+	private final LocalVariableSlots localSlots;
+
+	/**
+	 * The slot of this variable in {@link #localSlots}, or {@code -1}.
+	 */
+	private final int localSlot;
+
 	@SuppressWarnings("unchecked")
 	private Variable(VariableString name, Class<? extends T>[] types, boolean local, boolean list, @Nullable Variable<?> source) {
 		assert types.length > 0;
@@ -110,6 +123,26 @@ public class Variable<T> implements Expression<T> {
 		this.superType = (Class<T>) Utils.getSuperType(types);
 
 		this.source = source;
+
+		if (source != null) {
+			this.localSlots = source.localSlots;
+			this.localSlot = source.localSlot;
+		} else if (local && !list && name.isSimple() && parser.isActive()) {
+			// The name is known at parse time, so it can be resolved to a slot already
+			String slotName = name.toString(null);
+			if (Variables.caseInsensitiveVariables)
+				slotName = slotName.toLowerCase(Locale.ENGLISH);
+			if (!slotName.contains(SEPARATOR)) {
+				this.localSlots = parser.getLocalVariableSlots();
+				this.localSlot = localSlots.addSlot(slotName);
+			} else {
+				this.localSlots = null;
+				this.localSlot = -1;
+			}
+		} else {
+			this.localSlots = null;
+			this.localSlot = -1;
+		}
 	}
 
 	/**
@@ -312,7 +345,12 @@ public class Variable<T> implements Expression<T> {
 			// prevents e.g. {%expr%} where "%expr%" ends with "::*" from returning a Map
 			if (name.endsWith(Variable.SEPARATOR + "*") != list)
 				return null;
-			Object value = !list ? convertIfOldPlayer(name, event, Variables.getVariable(name, event, local)) : Variables.getVariable(name, event, local);
+			Object value;
+			if (localSlots != null) {
+				value = convertIfOldPlayer(name, event, Variables.getLocalVariable(localSlots, localSlot, event));
+			} else {
+				value = !list ? convertIfOldPlayer(name, event, Variables.getVariable(name, event, local)) : Variables.getVariable(name, event, local);
+			}
 			if (value != null)
 				return value;
 
@@ -378,42 +416,24 @@ public class Variable<T> implements Expression<T> {
 		if (!list)
 			throw new SkriptAPIException("Looping a non-list variable");
 		String name = StringUtils.substring(this.name.toString(event), 0, -1);
-		Object val = Variables.getVariable(name + "*", event, local);
-		if (val == null)
+		// a snapshot prevents CMEs and doesn't require looking up every element again
+		List<Pair<String, Object>> elements = Variables.getListElements(name + "*", event, local);
+		if (elements == null)
 			return new EmptyIterator<>();
-		assert val instanceof TreeMap;
-		// temporary list to prevent CMEs
-		@SuppressWarnings("unchecked")
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) val).keySet()).iterator();
+		Iterator<Pair<String, Object>> iterator = elements.iterator();
 		return new Iterator<Pair<String, Object>>() {
-			@Nullable
-			private String key;
-			@Nullable
-			private Object next = null;
-
 			@Override
 			public boolean hasNext() {
-				if (next != null)
-					return true;
-				while (keys.hasNext()) {
-					key = keys.next();
-					if (key != null) {
-						next = convertIfOldPlayer(name + key, event, Variables.getVariable(name + key, event, local));
-						if (next != null && !(next instanceof TreeMap))
-							return true;
-					}
-				}
-				next = null;
-				return false;
+				return iterator.hasNext();
 			}
 
 			@Override
 			public Pair<String, Object> next() {
-				if (!hasNext())
-					throw new NoSuchElementException();
-				Pair<String, Object> n = new Pair<>(key, next);
-				next = null;
-				return n;
+				Pair<String, Object> element = iterator.next();
+				Object value = element.getSecond();
+				if (value instanceof Player)
+					element.setSecond(convertIfOldPlayer(name + element.getFirst(), event, value));
+				return element;
 			}
 
 			@Override
@@ -432,33 +452,27 @@ public class Variable<T> implements Expression<T> {
 			return value != null ? new SingleItemIterator<>(value) : null;
 		}
 		String name = StringUtils.substring(this.name.toString(event), 0, -1);
-		Object value = Variables.getVariable(name + "*", event, local);
-		if (value == null)
+		// a snapshot prevents CMEs and doesn't require looking up every element again
+		List<Pair<String, Object>> elements = Variables.getListElements(name + "*", event, local);
+		if (elements == null)
 			return new EmptyIterator<>();
-		assert value instanceof TreeMap;
-		// temporary list to prevent CMEs
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) value).keySet()).iterator();
+		Iterator<Pair<String, Object>> elementIterator = elements.iterator();
 		return new Iterator<T>() {
-			@Nullable
-			private String key;
 			@Nullable
 			private T next = null;
 
 			@Override
-			@SuppressWarnings({"unchecked"})
 			public boolean hasNext() {
 				if (next != null)
 					return true;
-				while (keys.hasNext()) {
-					key = keys.next();
-					if (key != null) {
-						next = Converters.convert(Variables.getVariable(name + key, event, local), types);
-						next = (T) convertIfOldPlayer(name + key, event, next);
-						if (next != null && !(next instanceof TreeMap))
-							return true;
-					}
+				while (elementIterator.hasNext()) {
+					Pair<String, Object> element = elementIterator.next();
+					next = Converters.convert(element.getSecond(), types);
+					if (next instanceof Player)
+						next = (T) convertIfOldPlayer(name + element.getFirst(), event, next);
+					if (next != null)
+						return true;
 				}
-				next = null;
 				return false;
 			}
 
@@ -491,6 +505,10 @@ public class Variable<T> implements Expression<T> {
 	}
 
 	private void set(Event event, @Nullable Object value) {
+		if (localSlots != null) {
+			Variables.setLocalVariable(localSlots, localSlot, value, event);
+			return;
+		}
 		Variables.setVariable("" + name.toString(event), value, event, local);
 	}
 
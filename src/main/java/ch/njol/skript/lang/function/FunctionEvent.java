@@ -20,6 +20,7 @@ package ch.njol.skript.lang.function;
 
 import org.bukkit.event.Event;
 import org.bukkit.event.HandlerList;
+import org.eclipse.jdt.annotation.Nullable;
 
 public final class FunctionEvent<T> extends Event {
 	
@@ -28,6 +29,13 @@ public final class FunctionEvent<T> extends Event {
 	
 	private final Function<? extends T> function;
 	
+	/**
+	 * The value returned by the call this event belongs to, set by {@link ch.njol.skript.effects.EffReturn}.
+	 */
+	@Nullable
+	private Object[] returnValue;
+	private boolean returnValueSet;
+	
 	public FunctionEvent(Function<? extends T> function) {
 		this.function = function;
 	}
@@ -36,6 +44,17 @@ public final class FunctionEvent<T> extends Event {
 		return function;
 	}
 	
+	@Nullable
+	Object[] getReturnValue() {
+		return returnValue;
+	}
+	
+	void setReturnValue(@Nullable Object[] returnValue) {
+		assert !returnValueSet;
+		returnValueSet = true;
+		this.returnValue = returnValue;
+	}
+	
 	@Override
 	public HandlerList getHandlers() {
 		return handlers;
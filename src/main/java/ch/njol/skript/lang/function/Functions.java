@@ -25,6 +25,7 @@ import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.ParseContext;
 import ch.njol.skript.lang.SkriptParser;
+import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.util.Utils;
@@ -35,10 +36,10 @@ import org.skriptlang.skript.lang.script.Script;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Static methods to work with functions.
@@ -53,13 +54,46 @@ public abstract class Functions {
 
 	private Functions() {}
 
+	/**
+	 * Not supported with {@link ch.njol.skript.ScriptLoader#isParallel() parallel loading}, in which case this is always {@code null}.
+	 *
+	 * @deprecated The function currently being parsed is bound to the {@link ParserInstance},
+	 * use {@link FunctionData#getFunction()} instead.
+	 */
+	@Deprecated
 	@Nullable
 	public static ScriptFunction<?> currentFunction = null;
 
+	/**
+	 * Holds the function whose body is being parsed by a {@link ParserInstance}.
+	 */
+	public static class FunctionData extends ParserInstance.Data {
+
+		@Nullable
+		private ScriptFunction<?> function;
+
+		public FunctionData(ParserInstance parserInstance) {
+			super(parserInstance);
+		}
+
+		/**
+		 * @return the function whose body is being parsed, or null if no function is being parsed.
+		 */
+		@Nullable
+		public ScriptFunction<?> getFunction() {
+			return function;
+		}
+
+		void setFunction(@Nullable ScriptFunction<?> function) {
+			this.function = function;
+		}
+
+	}
+
 	/**
 	 * Function namespaces.
 	 */
-	private static final Map<Namespace.Key, Namespace> namespaces = new HashMap<>();
+	private static final Map<Namespace.Key, Namespace> namespaces = new ConcurrentHashMap<>();
 
 	/**
 	 * Namespace of Java functions.
@@ -67,6 +101,8 @@ public abstract class Functions {
 	private static final Namespace javaNamespace;
 
 	static {
+		ParserInstance.registerData(FunctionData.class, FunctionData::new);
+
 		javaNamespace = new Namespace();
 		namespaces.put(new Namespace.Key(Namespace.Origin.JAVA, "unknown"), javaNamespace);
 	}
@@ -74,7 +110,7 @@ public abstract class Functions {
 	/**
 	 * Namespaces of functions that are globally available.
 	 */
-	private static final Map<String, Namespace> globalFunctions = new HashMap<>();
+	private static final Map<String, Namespace> globalFunctions = new ConcurrentHashMap<>();
 
 	static boolean callFunctionEvents = false;
 
@@ -382,9 +418,11 @@ public abstract class Functions {
 		// Queue references to signatures we have for revalidation
 		// Can't validate here, because other scripts might be loaded soon
 		for (Signature<?> sign : namespace.getSignatures()) {
-			for (FunctionReference<?> ref : sign.calls) {
-				if (!script.equals(ref.script)) {
-					toValidate.add(ref);
+			synchronized (sign.calls) {
+				for (FunctionReference<?> ref : sign.calls) {
+					if (!script.equals(ref.script)) {
+						toValidate.add(ref);
+					}
 				}
 			}
 		}
@@ -407,9 +445,11 @@ public abstract class Functions {
 			}
 		}
 
-		for (FunctionReference<?> ref : signature.calls) {
-			if (!signature.script.equals(ref.script))
-				toValidate.add(ref);
+		synchronized (signature.calls) {
+			for (FunctionReference<?> ref : signature.calls) {
+				if (!signature.script.equals(ref.script))
+					toValidate.add(ref);
+			}
 		}
 	}
 
@@ -19,8 +19,8 @@
 package ch.njol.skript.lang.function;
 
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.Objects;
 
 import org.eclipse.jdt.annotation.Nullable;
@@ -153,8 +153,8 @@ public class Namespace {
 	private final Map<Info, Function<?>> functions;
 
 	public Namespace() {
-		this.signatures = new HashMap<>();
-		this.functions = new HashMap<>();
+		this.signatures = new ConcurrentHashMap<>();
+		this.functions = new ConcurrentHashMap<>();
 	}
 	
 	@Nullable
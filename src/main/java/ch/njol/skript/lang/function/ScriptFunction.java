@@ -18,6 +18,8 @@
  */
 package ch.njol.skript.lang.function;
 
+import java.util.Locale;
+
 import org.skriptlang.skript.lang.script.Script;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -25,7 +27,10 @@ import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.effects.EffReturn;
 import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.lang.parser.ParserInstance;
 import ch.njol.skript.lang.util.SimpleEvent;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.skript.variables.Variables;
 
 /**
@@ -35,10 +40,40 @@ public class ScriptFunction<T> extends Function<T> {
 	
 	private final Trigger trigger;
 	
+	/**
+	 * The local variable slot of each single parameter, or {@code -1} if it must be set by name.
+	 */
+	private final int[] parameterSlots;
+	
+	/**
+	 * The prefix of the names of the list variable elements of each parameter.
+	 */
+	private final String[] parameterListPrefixes;
+	
 	public ScriptFunction(Signature<T> sign, Script script, SectionNode node) {
 		super(sign);
 		
-		Functions.currentFunction = this;
+		ParserInstance parser = ParserInstance.get();
+		Parameter<?>[] parameters = sign.getParameters();
+		parameterSlots = new int[parameters.length];
+		parameterListPrefixes = new String[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			Parameter<?> parameter = parameters[i];
+			parameterListPrefixes[i] = parameter.name + Variable.SEPARATOR;
+			
+			String slotName = parameter.name;
+			if (Variables.caseInsensitiveVariables)
+				slotName = slotName.toLowerCase(Locale.ENGLISH);
+			boolean hasSlot = parameter.single && parser.isActive() && !slotName.contains(Variable.SEPARATOR);
+			parameterSlots[i] = hasSlot ? parser.getLocalVariableSlots().addSlot(slotName) : -1;
+		}
+		
+		Functions.FunctionData functionData = parser.getData(Functions.FunctionData.class);
+		functionData.setFunction(this);
+		// The deprecated static would be shared by the scripts loading in parallel
+		boolean setStatic = !ScriptLoader.isParallel();
+		if (setStatic)
+			Functions.currentFunction = this;
 		try {
 			trigger = new Trigger(
 				script,
@@ -48,49 +83,58 @@ public class ScriptFunction<T> extends Function<T> {
 			);
 			trigger.setLineNumber(node.getLine());
 		} finally {
-			Functions.currentFunction = null;
+			functionData.setFunction(null);
+			if (setStatic)
+				Functions.currentFunction = null;
 		}
 	}
 	
-	private boolean returnValueSet = false;
-	@Nullable
-	private T[] returnValue = null;
-	
 	/**
+	 * Sets the return value of the call of this function the given event belongs to.
 	 * Should only be called by {@link EffReturn}.
 	 */
-	public final void setReturnValue(final @Nullable T[] value) {
-		assert !returnValueSet;
-		returnValueSet = true;
-		returnValue = value;
+	public final void setReturnValue(FunctionEvent<?> event, @Nullable T[] value) {
+		event.setReturnValue(value);
 	}
 	
 	// REMIND track possible types of local variables (including undefined variables) (consider functions, commands, and EffChange) - maybe make a general interface for this purpose
 	// REM: use patterns, e.g. {_a%b%} is like "a.*", and thus subsequent {_axyz} may be set and of that type.
 	@Override
 	@Nullable
+	@SuppressWarnings("unchecked")
 	public T[] execute(final FunctionEvent<?> e, final Object[][] params) {
+		// Parameters are stored in local variables, which should use the trigger's slots
+		LocalVariableSlots slots = trigger.getLocalVariableSlots();
+		Variables.initLocalVariables(e, slots);
+
 		Parameter<?>[] parameters = getSignature().getParameters();
 		for (int i = 0; i < parameters.length; i++) {
 			Parameter<?> p = parameters[i];
 			Object[] val = params[i];
 			if (p.single && val.length > 0) {
-				Variables.setVariable(p.name, val[0], e, true);
+				int slot = parameterSlots[i];
+				if (slot != -1) {
+					Variables.setLocalVariable(slots, slot, val[0], e);
+				} else {
+					Variables.setVariable(p.name, val[0], e, true);
+				}
 			} else {
+				String prefix = parameterListPrefixes[i];
 				for (int j = 0; j < val.length; j++) {
-					Variables.setVariable(p.name + "::" + (j + 1), val[j], e, true);
+					Variables.setVariable(prefix + (j + 1), val[j], e, true);
 				}
 			}
 		}
 		
 		trigger.execute(e);
-		return returnValue;
+		return (T[]) e.getReturnValue();
 	}
 
+	/**
+	 * Return values are kept by the {@link FunctionEvent} of each call, so there is nothing to reset.
+	 */
 	@Override
 	public boolean resetReturnValue() {
-		returnValue = null;
-		returnValueSet = false;
 		return true;
 	}
 
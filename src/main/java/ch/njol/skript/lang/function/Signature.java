@@ -66,6 +66,7 @@ public class Signature<T> {
 	
 	/**
 	 * References (function calls) to function with this signature.
+	 * Synchronize on this collection when iterating over it, as scripts may be loaded in parallel.
 	 */
 	final Collection<FunctionReference<?>> calls;
 
@@ -89,7 +90,7 @@ public class Signature<T> {
 		this.single = single;
 		this.originClassPath = originClassPath;
 
-		calls = Collections.newSetFromMap(new WeakHashMap<>());
+		calls = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 	}
 
 	public Signature(String script, String name, Parameter<?>[] parameters, boolean local, @Nullable ClassInfo<T> returnType, boolean single) {
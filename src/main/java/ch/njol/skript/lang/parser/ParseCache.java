@@ -0,0 +1,333 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.lang.parser;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
+import ch.njol.skript.config.Node;
+import ch.njol.skript.lang.SyntaxElementInfo;
+import org.eclipse.jdt.annotation.Nullable;
+import org.skriptlang.skript.lang.script.Script;
+import org.skriptlang.skript.lang.script.ScriptData;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers which syntax element and pattern each statement of the loaded scripts was parsed as,
+ * so an unchanged statement can be parsed as that pattern right away the next time its script is loaded,
+ * e.g. after a reload or a restart, instead of trying all patterns.
+ * If the statement can't be parsed as the remembered pattern anymore, it is parsed as usual.
+ * <p>
+ * The cache is stored in Skript's folder if the 'parse cache' option is enabled.
+ * The statements of a script are forgotten as soon as the script's content changes,
+ * and the whole cache is discarded when the version of Skript or of any addon changes.
+ */
+public final class ParseCache {
+
+	private static final String FILE_NAME = "parse-cache.dat";
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * Lines longer than this aren't remembered, as they can't be written in modified UTF-8.
+	 */
+	private static final int MAX_LINE_LENGTH = 16384;
+
+	/**
+	 * The pattern a statement was parsed as.
+	 */
+	public static final class Hint {
+
+		private final String elementClass;
+		private final int patternIndex;
+		private final String pattern;
+
+		private Hint(String elementClass, int patternIndex, String pattern) {
+			this.elementClass = elementClass;
+			this.patternIndex = patternIndex;
+			this.pattern = pattern;
+		}
+
+		/**
+		 * @return the index of the pattern in the syntax element's patterns.
+		 */
+		public int getPatternIndex() {
+			return patternIndex;
+		}
+
+		/**
+		 * Finds the syntax element this statement was parsed as.
+		 *
+		 * @param source the syntax elements the statement is being parsed as.
+		 * @return the syntax element, or {@code null} if it isn't in the given syntax elements,
+		 * or doesn't have the same pattern anymore.
+		 */
+		@Nullable
+		public <T extends SyntaxElementInfo<?>> T find(Collection<T> source) {
+			for (T info : source) {
+				if (info.getElementClass().getName().equals(elementClass)
+						&& patternIndex < info.patterns.length && info.patterns[patternIndex].equals(pattern))
+					return info;
+			}
+			return null;
+		}
+
+	}
+
+	/**
+	 * The remembered statements of a script,
+	 * which is added to the script when it's started, so it doesn't have to be looked up for every statement.
+	 */
+	private static final class ScriptEntry implements ScriptData {
+
+		/**
+		 * The hash of the script's content.
+		 */
+		final String hash;
+
+		/**
+		 * The remembered statements, by their line number and text.
+		 */
+		final Map<String, Hint> hints = new ConcurrentHashMap<>();
+
+		ScriptEntry(String hash) {
+			this.hash = hash;
+		}
+
+	}
+
+	/**
+	 * The remembered statements of each script by the path of its file,
+	 * or {@code null} if the cache hasn't been read yet.
+	 * Scripts of different threads are started and parsed concurrently, so only reading the cache holds the class' monitor.
+	 */
+	@Nullable
+	private static volatile Map<String, ScriptEntry> scripts;
+
+	/**
+	 * Whether the cache has changed since it was last written.
+	 */
+	private static volatile boolean changed;
+
+	private ParseCache() {}
+
+	/**
+	 * Must be called before a script is parsed.
+	 * Forgets the script's statements if its content has changed since they were remembered.
+	 *
+	 * @param script the script.
+	 */
+	public static void startScript(Script script) {
+		script.removeData(ScriptEntry.class);
+		File file = script.getConfig().getFile();
+		if (!SkriptConfig.parseCache.value() || file == null)
+			return;
+
+		String hash = hash(file);
+		if (hash == null)
+			return;
+
+		ScriptEntry entry = getScripts().compute(file.getPath(), (path, previous) -> {
+			if (previous != null && previous.hash.equals(hash))
+				return previous;
+			changed = true;
+			return new ScriptEntry(hash);
+		});
+		script.addData(entry);
+	}
+
+	/**
+	 * @param expr the statement being parsed on the current line.
+	 * @return the pattern the statement was parsed as the last time,
+	 * or {@code null} if it isn't known.
+	 */
+	@Nullable
+	public static Hint getHint(String expr) {
+		ScriptEntry entry = getCurrentEntry();
+		if (entry == null)
+			return null;
+
+		Node node = ParserInstance.get().getNode();
+		assert node != null;
+		return entry.hints.get(node.getLine() + ":" + expr);
+	}
+
+	/**
+	 * Remembers the pattern the statement on the current line was parsed as.
+	 *
+	 * @param expr the statement.
+	 * @param info the syntax element the statement was parsed as.
+	 * @param patternIndex the index of the pattern the statement was parsed as.
+	 */
+	public static void record(String expr, SyntaxElementInfo<?> info, int patternIndex) {
+		ScriptEntry entry = getCurrentEntry();
+		if (entry == null || expr.length() > MAX_LINE_LENGTH)
+			return;
+
+		Node node = ParserInstance.get().getNode();
+		assert node != null;
+		Hint hint = new Hint(info.getElementClass().getName(), patternIndex, info.patterns[patternIndex]);
+		Hint previous = entry.hints.put(node.getLine() + ":" + expr, hint);
+		if (previous == null || !previous.elementClass.equals(hint.elementClass) || previous.patternIndex != patternIndex)
+			changed = true;
+	}
+
+	/**
+	 * @return the remembered statements of the script currently being parsed,
+	 * or {@code null} if there are none or no line of a script is being parsed.
+	 */
+	@Nullable
+	private static ScriptEntry getCurrentEntry() {
+		if (!SkriptConfig.parseCache.value())
+			return null;
+
+		ParserInstance parser = ParserInstance.get();
+		if (!parser.isActive() || parser.getNode() == null)
+			return null;
+
+		return parser.getCurrentScript().getData(ScriptEntry.class);
+	}
+
+	/**
+	 * Writes the cache to its file, if it has changed.
+	 * Scripts that don't exist anymore are forgotten.
+	 */
+	public static synchronized void save() {
+		Map<String, ScriptEntry> scripts = ParseCache.scripts;
+		if (scripts == null || !changed)
+			return;
+
+		scripts.keySet().removeIf(path -> !new File(path).exists());
+
+		// Statements remembered while the cache is written are written the next time
+		changed = false;
+		File file = new File(Skript.getInstance().getDataFolder(), FILE_NAME);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(getVersions());
+			// The sizes are written first, so the maps are copied in case statements are remembered meanwhile
+			Map<String, ScriptEntry> scriptsCopy = new HashMap<>(scripts);
+			out.writeInt(scriptsCopy.size());
+			for (Map.Entry<String, ScriptEntry> script : scriptsCopy.entrySet()) {
+				Map<String, Hint> hints = new HashMap<>(script.getValue().hints);
+				out.writeUTF(script.getKey());
+				out.writeUTF(script.getValue().hash);
+				out.writeInt(hints.size());
+				for (Map.Entry<String, Hint> hint : hints.entrySet()) {
+					out.writeUTF(hint.getKey());
+					out.writeUTF(hint.getValue().elementClass);
+					out.writeInt(hint.getValue().patternIndex);
+					out.writeUTF(hint.getValue().pattern);
+				}
+			}
+		} catch (IOException e) {
+			changed = true;
+			Skript.warning("Could not write the parse cache: " + e.getLocalizedMessage());
+		}
+	}
+
+	/**
+	 * Reads the cache from its file if that hasn't happened yet.
+	 */
+	private static Map<String, ScriptEntry> getScripts() {
+		Map<String, ScriptEntry> scripts = ParseCache.scripts;
+		if (scripts != null)
+			return scripts;
+
+		synchronized (ParseCache.class) {
+			scripts = ParseCache.scripts;
+			if (scripts == null) {
+				scripts = read();
+				ParseCache.scripts = scripts;
+			}
+			return scripts;
+		}
+	}
+
+	/**
+	 * Reads the cache from its file.
+	 * An outdated or unreadable cache is discarded.
+	 */
+	private static Map<String, ScriptEntry> read() {
+		Map<String, ScriptEntry> scripts = new ConcurrentHashMap<>();
+		File file = new File(Skript.getInstance().getDataFolder(), FILE_NAME);
+		if (!file.exists())
+			return scripts;
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt() != FORMAT_VERSION || !in.readUTF().equals(getVersions()))
+				return scripts;
+
+			int scriptCount = in.readInt();
+			for (int i = 0; i < scriptCount; i++) {
+				String path = in.readUTF();
+				ScriptEntry entry = new ScriptEntry(in.readUTF());
+				int hintCount = in.readInt();
+				for (int j = 0; j < hintCount; j++) {
+					String key = in.readUTF();
+					entry.hints.put(key, new Hint(in.readUTF(), in.readInt(), in.readUTF()));
+				}
+				scripts.put(path, entry);
+			}
+		} catch (IOException e) {
+			scripts.clear();
+			Skript.warning("Could not read the parse cache, it will be recreated: " + e.getLocalizedMessage());
+		}
+		return scripts;
+	}
+
+	/**
+	 * @return the versions of Skript and all addons, which the cached patterns depend on.
+	 */
+	private static String getVersions() {
+		return Skript.getVersion() + ";" + Skript.getAddons().stream()
+				.map(addon -> addon.getName() + " " + addon.plugin.getDescription().getVersion())
+				.sorted()
+				.collect(Collectors.joining(";"));
+	}
+
+	/**
+	 * @return the hash of the given file's content, or {@code null} if it couldn't be read.
+	 */
+	@Nullable
+	private static String hash(File file) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath()));
+			StringBuilder hash = new StringBuilder(digest.length * 2);
+			for (byte b : digest)
+				hash.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			return hash.toString();
+		} catch (IOException | NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+}
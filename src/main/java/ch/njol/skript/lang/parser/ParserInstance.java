@@ -27,7 +27,9 @@ import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.TriggerSection;
 import ch.njol.skript.log.HandlerList;
+import ch.njol.skript.log.LogEntry;
 import ch.njol.skript.structures.StructOptions.OptionsData;
+import ch.njol.skript.variables.LocalVariableSlots;
 import ch.njol.util.Kleenean;
 import ch.njol.util.coll.CollectionUtils;
 import org.bukkit.event.Event;
@@ -42,6 +44,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public final class ParserInstance {
@@ -68,6 +71,7 @@ public final class ParserInstance {
 		setCurrentStructure(null);
 		deleteCurrentEvent();
 		getCurrentSections().clear();
+		setLocalVariableSlots(new LocalVariableSlots());
 		setNode(null);
 	}
 
@@ -78,6 +82,7 @@ public final class ParserInstance {
 	public void setActive(Script script) {
 		this.isActive = true;
 		setCurrentScript(script);
+		setLocalVariableSlots(new LocalVariableSlots());
 		setNode(null);
 	}
 
@@ -356,6 +361,27 @@ public final class ParserInstance {
 		return hasDelayBefore;
 	}
 
+	// Local variable API
+
+	private LocalVariableSlots localVariableSlots = new LocalVariableSlots();
+
+	/**
+	 * Updates the slots static local variables will be assigned to.
+	 * A new instance is used automatically for every structure loaded by the {@link ScriptLoader}.
+	 * @param localVariableSlots The new slots to use.
+	 */
+	public void setLocalVariableSlots(LocalVariableSlots localVariableSlots) {
+		this.localVariableSlots = localVariableSlots;
+	}
+
+	/**
+	 * @return The slots local variables with names known at parse time are assigned to.
+	 * These are shared by all triggers of the structure currently being loaded.
+	 */
+	public LocalVariableSlots getLocalVariableSlots() {
+		return localVariableSlots;
+	}
+
 	// Miscellaneous
 
 	private final HandlerList handlers = new HandlerList();
@@ -377,7 +403,10 @@ public final class ParserInstance {
 	 * Null means to mark it as no node currently being handled (that the ParserInstance is aware of).
 	 */
 	public void setNode(@Nullable Node node) {
-		this.node = (node == null || node.getParent() == null) ? null : node;
+		node = (node == null || node.getParent() == null) ? null : node;
+		if (node != this.node)
+			failedParses.clear();
+		this.node = node;
 	}
 
 	/**
@@ -389,6 +418,23 @@ public final class ParserInstance {
 		return node;
 	}
 
+	/**
+	 * The sub-expressions that failed to parse on the current {@link #node},
+	 * mapped to the error they logged, if any.
+	 */
+	private final Map<Object, @Nullable LogEntry> failedParses = new HashMap<>();
+
+	/**
+	 * You probably shouldn't use this method.
+	 *
+	 * @return The sub-expressions that failed to parse on the current node, which is cleared whenever the node changes,
+	 * or null if no node is currently being handled.
+	 */
+	@Nullable
+	public Map<Object, @Nullable LogEntry> getFailedParses() {
+		return node == null ? null : failedParses;
+	}
+
 	private String indentation = "";
 
 	public void setIndentation(String indentation) {
@@ -430,7 +476,7 @@ public final class ParserInstance {
 		
 	}
 	
-	private static final Map<Class<? extends Data>, Function<ParserInstance, ? extends Data>> dataRegister = new HashMap<>();
+	private static final Map<Class<? extends Data>, Function<ParserInstance, ? extends Data>> dataRegister = new ConcurrentHashMap<>();
 	// Should be Map<Class<? extends Data>, ? extends Data>, but that caused issues (with generics) in #getData(Class)
 	private final Map<Class<? extends Data>, Data> dataMap = new HashMap<>();
 	
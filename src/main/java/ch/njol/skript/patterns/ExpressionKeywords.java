@@ -0,0 +1,77 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.patterns;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Keeps track of which {@link SkriptPattern#getKeywords() keywords} of patterns appear in an expression,
+ * so an expression that is matched against many patterns only has to be lowercased once,
+ * and each distinct keyword only has to be looked up once.
+ */
+public class ExpressionKeywords {
+
+	private static final byte UNKNOWN = 0, PRESENT = 1, ABSENT = 2;
+
+	private final String lowerExpr;
+
+	/**
+	 * Whether each keyword appears in the expression, indexed by the keyword's id.
+	 */
+	private byte[] states = new byte[0];
+
+	public ExpressionKeywords(String expr) {
+		lowerExpr = expr.toLowerCase(Locale.ENGLISH);
+	}
+
+	/**
+	 * @return the lowercased expression.
+	 */
+	String getLowerExpr() {
+		return lowerExpr;
+	}
+
+	/**
+	 * @return whether all keywords of the given pattern appear in the expression,
+	 * which is required for the pattern to match the expression.
+	 */
+	public boolean containsAll(SkriptPattern pattern) {
+		String[] keywords = pattern.getKeywords();
+		int[] keywordIds = pattern.getKeywordIds();
+		for (int i = 0; i < keywordIds.length; i++) {
+			if (!contains(keywordIds[i], keywords[i]))
+				return false;
+		}
+		return true;
+	}
+
+	private boolean contains(int id, String keyword) {
+		if (id >= states.length)
+			states = Arrays.copyOf(states, Math.max(id + 1, states.length * 2));
+
+		byte state = states[id];
+		if (state == UNKNOWN) {
+			state = lowerExpr.contains(keyword) ? PRESENT : ABSENT;
+			states[id] = state;
+		}
+		return state == PRESENT;
+	}
+
+}
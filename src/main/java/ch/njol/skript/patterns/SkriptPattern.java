@@ -26,18 +26,35 @@ import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SkriptPattern {
 
 	private final PatternElement first;
 	private final int expressionAmount;
 
+	/**
+	 * The ids of all distinct keywords of all patterns, see {@link ExpressionKeywords}.
+	 */
+	private static final Map<String, Integer> KEYWORD_IDS = new ConcurrentHashMap<>();
+	private static final AtomicInteger NEXT_KEYWORD_ID = new AtomicInteger();
+
 	private final String[] keywords;
 
+	/**
+	 * The ids of the {@link #keywords}, in the same order.
+	 */
+	private final int[] keywordIds;
+
 	public SkriptPattern(PatternElement first, int expressionAmount) {
 		this.first = first;
 		this.expressionAmount = expressionAmount;
 		keywords = getKeywords(first);
+		keywordIds = new int[keywords.length];
+		for (int i = 0; i < keywords.length; i++)
+			keywordIds[i] = KEYWORD_IDS.computeIfAbsent(keywords[i], keyword -> NEXT_KEYWORD_ID.getAndIncrement());
 	}
 
 	@Nullable
@@ -48,6 +65,26 @@ public class SkriptPattern {
 			if (!lowerExpr.contains(keyword))
 				return null;
 
+		return match_i(expr, flags, parseContext);
+	}
+
+	/**
+	 * Matches the given expression against this pattern, using the given keywords of the expression
+	 * for the matching shortcut, which is faster when matching the expression against many patterns.
+	 *
+	 * @param keywords the keywords of the given expression.
+	 */
+	@Nullable
+	public MatchResult match(String expr, int flags, ParseContext parseContext, ExpressionKeywords keywords) {
+		// Matching shortcut
+		if (!keywords.containsAll(this))
+			return null;
+
+		return match_i(expr, flags, parseContext);
+	}
+
+	@Nullable
+	private MatchResult match_i(String expr, int flags, ParseContext parseContext) {
 		expr = expr.trim();
 
 		MatchResult matchResult = new MatchResult();
@@ -68,6 +105,20 @@ public class SkriptPattern {
 		return first.toFullString();
 	}
 
+	/**
+	 * @return the literals that must appear in an expression for it to match this pattern, lowercased.
+	 */
+	public String[] getKeywords() {
+		return keywords;
+	}
+
+	/**
+	 * @return the ids of the {@link #getKeywords() keywords}, in the same order.
+	 */
+	int[] getKeywordIds() {
+		return keywordIds;
+	}
+
 	public static String[] getKeywords(PatternElement first) {
 		List<String> keywords = new ArrayList<>();
 		PatternElement next = first;
@@ -0,0 +1,201 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.patterns;
+
+import ch.njol.skript.lang.SyntaxElementInfo;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index from the {@link SkriptPattern#getKeywords() keywords} of the patterns of some syntax elements
+ * to those patterns, so an expression is only matched against the patterns whose keywords it contains,
+ * instead of against every pattern of every syntax element.
+ * <p>
+ * Each pattern is indexed under its least common keyword. The {@link #candidates(ExpressionKeywords) candidates}
+ * for an expression are the patterns whose indexed keyword appears in it, and are intersected with the other
+ * keywords of each pattern when they are {@link SkriptPattern#match(String, int, ch.njol.skript.lang.ParseContext, ExpressionKeywords) matched}.
+ * <p>
+ * The patterns are identified by their position in registration order, i.e. in the order of the given syntax elements
+ * and of their patterns, so iterating over the candidates visits them in the same order as iterating over all patterns would.
+ */
+public final class SyntaxIndex<I extends SyntaxElementInfo<?>> {
+
+	private final List<I> infos;
+
+	/**
+	 * The index of the syntax element in {@link #infos} and of the pattern in its patterns,
+	 * for each position in registration order.
+	 */
+	private final int[] entryInfos, entryPatterns;
+
+	/**
+	 * The compiled pattern for each position, or {@code null} if it couldn't be compiled,
+	 * in which case it is always a candidate, so compiling it again reports the error.
+	 */
+	private final @Nullable SkriptPattern[] entryCompiledPatterns;
+
+	/**
+	 * The positions of the patterns that are candidates for every expression, as they don't have any keywords.
+	 */
+	private final BitSet unindexed = new BitSet();
+
+	/**
+	 * The keywords the patterns are indexed under, by their first two characters.
+	 * Keywords of a single character are stored under that character.
+	 */
+	private final Map<Integer, Keyword[]> keywords = new HashMap<>();
+
+	private static final class Keyword {
+
+		private final String keyword;
+
+		/**
+		 * The positions of the patterns indexed under this keyword, in registration order.
+		 */
+		private final BitSet entries = new BitSet();
+
+		private Keyword(String keyword) {
+			this.keyword = keyword;
+		}
+
+	}
+
+	public SyntaxIndex(Collection<? extends I> infos) {
+		this.infos = new ArrayList<>(infos);
+
+		int size = 0;
+		for (I info : this.infos)
+			size += info.getPatterns().length;
+		entryInfos = new int[size];
+		entryPatterns = new int[size];
+		entryCompiledPatterns = new SkriptPattern[size];
+
+		// Count how many patterns contain each keyword, to index each pattern under its least common one
+		Map<String, Integer> frequencies = new HashMap<>();
+		int entry = 0;
+		for (int infoIndex = 0; infoIndex < this.infos.size(); infoIndex++) {
+			String[] patterns = this.infos.get(infoIndex).getPatterns();
+			for (int patternIndex = 0; patternIndex < patterns.length; patternIndex++) {
+				entryInfos[entry] = infoIndex;
+				entryPatterns[entry] = patternIndex;
+				try {
+					SkriptPattern pattern = PatternCompiler.compile(patterns[patternIndex]);
+					entryCompiledPatterns[entry] = pattern;
+					for (String keyword : pattern.getKeywords())
+						frequencies.merge(keyword, 1, Integer::sum);
+				} catch (MalformedPatternException ignored) {}
+				entry++;
+			}
+		}
+
+		Map<String, Keyword> indexed = new HashMap<>();
+		for (entry = 0; entry < size; entry++) {
+			SkriptPattern pattern = entryCompiledPatterns[entry];
+			String least = null;
+			if (pattern != null) {
+				for (String keyword : pattern.getKeywords()) {
+					// An empty keyword appears in every expression
+					if (!keyword.isEmpty() && (least == null || frequencies.get(keyword) < frequencies.get(least)))
+						least = keyword;
+				}
+			}
+			if (least == null) {
+				unindexed.set(entry);
+			} else {
+				indexed.computeIfAbsent(least, Keyword::new).entries.set(entry);
+			}
+		}
+
+		Map<Integer, List<Keyword>> byPrefix = new HashMap<>();
+		for (Keyword keyword : indexed.values())
+			byPrefix.computeIfAbsent(prefix(keyword.keyword, 0), prefix -> new ArrayList<>()).add(keyword);
+		byPrefix.forEach((prefix, list) -> keywords.put(prefix, list.toArray(new Keyword[0])));
+	}
+
+	/**
+	 * @return the first two characters of the given string starting at the given index,
+	 * or only the first one if there is only one left.
+	 */
+	private static int prefix(String string, int index) {
+		if (index + 1 == string.length())
+			return string.charAt(index);
+		return string.charAt(index) << 16 | string.charAt(index + 1);
+	}
+
+	/**
+	 * @return the positions of the patterns that the given expression may match, in registration order.
+	 * Patterns not included can't match the expression, as it doesn't contain all of their keywords.
+	 */
+	public BitSet candidates(ExpressionKeywords expressionKeywords) {
+		BitSet candidates = (BitSet) unindexed.clone();
+		String lowerExpr = expressionKeywords.getLowerExpr();
+		for (int index = 0; index < lowerExpr.length(); index++) {
+			// Keywords of a single character are only stored under it, longer ones under their first two
+			add(candidates, keywords.get((int) lowerExpr.charAt(index)), lowerExpr, index);
+			if (index + 1 < lowerExpr.length())
+				add(candidates, keywords.get(prefix(lowerExpr, index)), lowerExpr, index);
+		}
+		return candidates;
+	}
+
+	private static void add(BitSet candidates, Keyword @Nullable [] keywords, String lowerExpr, int index) {
+		if (keywords == null)
+			return;
+		for (Keyword keyword : keywords) {
+			if (lowerExpr.startsWith(keyword.keyword, index))
+				candidates.or(keyword.entries);
+		}
+	}
+
+	/**
+	 * @return the syntax element of the pattern at the given position.
+	 */
+	public I getInfo(int entry) {
+		return infos.get(entryInfos[entry]);
+	}
+
+	/**
+	 * @return the index of the pattern at the given position in the patterns of its {@link #getInfo(int) syntax element}.
+	 */
+	public int getPatternIndex(int entry) {
+		return entryPatterns[entry];
+	}
+
+	/**
+	 * @return the compiled pattern at the given position, or {@code null} if it couldn't be compiled.
+	 */
+	@Nullable
+	public SkriptPattern getPattern(int entry) {
+		return entryCompiledPatterns[entry];
+	}
+
+	/**
+	 * @return the indexed syntax elements, in registration order.
+	 */
+	public List<I> getInfos() {
+		return infos;
+	}
+
+}
@@ -82,7 +82,21 @@ public abstract class Classes {
 	private static ClassInfo<?>[] classInfos = null;
 	private final static List<ClassInfo<?>> tempClassInfos = new ArrayList<>();
 	private final static HashMap<Class<?>, ClassInfo<?>> exactClassInfos = new HashMap<>();
-	private final static HashMap<Class<?>, ClassInfo<?>> superClassInfos = new HashMap<>();
+	/**
+	 * The closest registered class info of each class, only used once registration is over.
+	 * It is used from any thread, e.g. to serialize variables, so it doesn't lock.
+	 */
+	private final static ClassValue<ClassInfo<?>> superClassInfos = new ClassValue<ClassInfo<?>>() {
+		@Override
+		@Nullable
+		protected ClassInfo<?> computeValue(Class<?> c) {
+			for (final ClassInfo<?> ci : getClassInfos()) {
+				if (ci.getC().isAssignableFrom(c))
+					return ci;
+			}
+			return null;
+		}
+	};
 	private final static HashMap<String, ClassInfo<?>> classInfosByCodeName = new HashMap<>();
 	
 	/**
@@ -307,17 +321,11 @@ public abstract class Classes {
 		assert c != null;
 		checkAllowClassInfoInteraction();
 		final ClassInfo<?> i = superClassInfos.get(c);
-		if (i != null)
-			return (ClassInfo<? super T>) i;
-		for (final ClassInfo<?> ci : getClassInfos()) {
-			if (ci.getC().isAssignableFrom(c)) {
-				if (!Skript.isAcceptRegistrations())
-					superClassInfos.put(c, ci);
-				return (ClassInfo<? super T>) ci;
-			}
+		if (i == null) { // The class infos haven't been sorted yet, don't remember that
+			superClassInfos.remove(c);
+			assert false;
 		}
-		assert false;
-		return null;
+		return (ClassInfo<? super T>) i;
 	}
 
 	/**
@@ -749,12 +757,23 @@ public abstract class Classes {
 			}
 		}
 		
+		return serialize(ci, o);
+	}
+	
+	/**
+	 * Serializes the given value using the serializer of the given class info, which must be the value's
+	 * (super) class info and must not be {@link ClassInfo#getSerializeAs() serialized as} another class.
+	 * <p>
+	 * May be called off Bukkit's main thread if the class info {@link ClassInfo#canSerializeAsync() allows it}.
+	 */
+	public static SerializedVariable.@Nullable Value serialize(ClassInfo<?> ci, Object o) {
+		assert ci.getSerializeAs() == null && ci.getC().isInstance(o) : ci + ", " + o.getClass();
+		assert Bukkit.isPrimaryThread() || ci.canSerializeAsync() : ci.getCodeName();
+		
 		final Serializer<?> s = ci.getSerializer();
 		if (s == null) // value cannot be saved
 			return null;
 		
-		assert s.mustSyncDeserialization() ? Bukkit.isPrimaryThread() : true;
-		
 		try {
 			final ByteArrayOutputStream bout = new ByteArrayOutputStream();
 			final YggdrasilOutputStream yout = Variables.yggdrasil.newOutputStream(bout);
@@ -768,8 +787,10 @@ public abstract class Classes {
 			final byte[] r2 = new byte[r.length - start.length];
 			System.arraycopy(r, start.length, r2, 0, r2.length);
 			
+			// the value can only be deserialized again on the main thread if the serializer requires so
 			Object d;
-			assert equals(o, d = deserialize(ci, new ByteArrayInputStream(r2))) : o + " (" + o.getClass() + ") != " + d + " (" + (d == null ? null : d.getClass()) + "): " + Arrays.toString(r);
+			assert s.mustSyncDeserialization() && !Bukkit.isPrimaryThread()
+				|| equals(o, d = deserialize(ci, new ByteArrayInputStream(r2))) : o + " (" + o.getClass() + ") != " + d + " (" + (d == null ? null : d.getClass()) + "): " + Arrays.toString(r);
 			
 			return new SerializedVariable.Value(ci.getCodeName(), r2);
 		} catch (final IOException e) { // shouldn't happen
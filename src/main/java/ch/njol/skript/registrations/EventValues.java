@@ -21,6 +21,9 @@ package ch.njol.skript.registrations;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
@@ -102,6 +105,15 @@ public class EventValues {
 	private final static List<EventValueInfo<?, ?>> futureEventValues = new ArrayList<>();
 	private final static List<EventValueInfo<?, ?>> pastEventValues = new ArrayList<>();
 
+	/**
+	 * The getters resolved by {@link #getEventValue(Event, Class, int)}, indexed by time + 1,
+	 * then by event class and by value class. Empty if no getter exists.
+	 */
+	@SuppressWarnings("unchecked")
+	private final static Map<Class<? extends Event>, Map<Class<?>, Optional<Getter<?, ?>>>>[] getterCache = new Map[] {
+		new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>()
+	};
+
 	/**
 	 * The past time of an event value. Represented by "past" or "former".
 	 */
@@ -177,10 +189,17 @@ public class EventValues {
 			// If the events match, we prefer the highest subclass type.
 			if (!info.event.equals(event) ? info.event.isAssignableFrom(event) : info.c.isAssignableFrom(type)) {
 				eventValues.add(i, new EventValueInfo<>(event, type, getter, excludeErrorMessage, excludes));
+				clearGetterCache();
 				return;
 			}
 		}
 		eventValues.add(new EventValueInfo<>(event, type, getter, excludeErrorMessage, excludes));
+		clearGetterCache();
+	}
+
+	private static void clearGetterCache() {
+		for (Map<?, ?> cache : getterCache)
+			cache.clear();
 	}
 
 	/**
@@ -198,9 +217,18 @@ public class EventValues {
 	 * @see #registerEventValue(Class, Class, Getter, int)
 	 */
 	@Nullable
+	@SuppressWarnings("unchecked")
 	public static <T, E extends Event> T getEventValue(E e, Class<T> c, int time) {
-		@SuppressWarnings("unchecked")
-		Getter<? extends T, ? super E> getter = getEventValueGetter((Class<E>) e.getClass(), c, time);
+		Class<E> eventClass = (Class<E>) e.getClass();
+		getEventValuesList(time); // throws for an invalid time
+		Map<Class<?>, Optional<Getter<?, ?>>> cache = getterCache[time + 1]
+			.computeIfAbsent(eventClass, event -> new ConcurrentHashMap<>());
+		Optional<Getter<?, ?>> cached = cache.get(c);
+		if (cached == null) {
+			cached = Optional.ofNullable(getEventValueGetter(eventClass, c, time));
+			cache.putIfAbsent(c, cached);
+		}
+		Getter<? extends T, ? super E> getter = (Getter<? extends T, ? super E>) cached.orElse(null);
 		if (getter == null)
 			return null;
 		return getter.get(e);
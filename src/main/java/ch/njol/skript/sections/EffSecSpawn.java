@@ -148,10 +148,9 @@ public class EffSecSpawn extends EffectSection {
 				// Copy the local variables from the calling code to this section
 				Variables.setLocalVariables(spawnEvent, Variables.copyLocalVariables(event));
 				TriggerItem.walk(trigger, spawnEvent);
-				// And copy our (possibly modified) local variables back to the calling code
-				Variables.setLocalVariables(event, Variables.copyLocalVariables(spawnEvent));
-				// Clear spawnEvent's local variables as it won't be done automatically
-				Variables.removeLocals(spawnEvent);
+				// And move our (possibly modified) local variables back to the calling code,
+				//  which also clears spawnEvent's local variables as it won't be done automatically
+				Variables.setLocalVariables(event, Variables.removeLocals(spawnEvent));
 			};
 		} else {
 			consumer = null;
@@ -40,8 +40,6 @@ import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 @Name("Loop")
 @Description({
@@ -89,8 +87,21 @@ public class SecLoop extends LoopSection {
 	@SuppressWarnings("NotNullFieldNotInitialized")
 	private Expression<?> expr;
 
-	private final transient Map<Event, Object> current = new WeakHashMap<>();
-	private final transient Map<Event, Iterator<?>> currentIter = new WeakHashMap<>();
+	/**
+	 * The state of a loop over an expression in one execution of its trigger.
+	 */
+	private static final class Frame extends LoopFrame {
+
+		private final Iterator<?> iterator;
+
+		@Nullable
+		private Object current;
+
+		private Frame(Iterator<?> iterator) {
+			this.iterator = iterator;
+		}
+
+	}
 
 	@Nullable
 	private TriggerItem actualNext;
@@ -130,23 +141,21 @@ public class SecLoop extends LoopSection {
 	@Override
 	@Nullable
 	protected TriggerItem walk(Event event) {
-		Iterator<?> iter = currentIter.get(event);
-		if (iter == null) {
-			iter = expr instanceof Variable ? ((Variable<?>) expr).variablesIterator(event) : expr.iterator(event);
-			if (iter != null) {
-				if (iter.hasNext())
-					currentIter.put(event, iter);
-				else
-					iter = null;
+		Frame frame = (Frame) getFrame(event);
+		if (frame == null) {
+			Iterator<?> iter = expr instanceof Variable ? ((Variable<?>) expr).variablesIterator(event) : expr.iterator(event);
+			if (iter != null && iter.hasNext()) {
+				frame = new Frame(iter);
+				startFrame(event, frame);
 			}
 		}
-		if (iter == null || !iter.hasNext()) {
+		if (frame == null || !frame.iterator.hasNext()) {
 			exit(event);
 			debug(event, false);
 			return actualNext;
 		} else {
-			current.put(event, iter.next());
-			currentLoopCounter.put(event, (currentLoopCounter.getOrDefault(event, 0L)) + 1);
+			frame.current = frame.iterator.next();
+			frame.nextIteration();
 			return walk(event, true);
 		}
 	}
@@ -158,7 +167,8 @@ public class SecLoop extends LoopSection {
 
 	@Nullable
 	public Object getCurrent(Event event) {
-		return current.get(event);
+		Frame frame = (Frame) getFrame(event);
+		return frame == null ? null : frame.current;
 	}
 
 	public Expression<?> getLoopedExpression() {
@@ -177,11 +187,4 @@ public class SecLoop extends LoopSection {
 		return actualNext;
 	}
 
-	@Override
-	public void exit(Event event) {
-		current.remove(event);
-		currentIter.remove(event);
-		super.exit(event);
-	}
-
 }
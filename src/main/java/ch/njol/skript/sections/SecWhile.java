@@ -34,8 +34,6 @@ import org.bukkit.event.Event;
 import org.eclipse.jdt.annotation.Nullable;
 
 import java.util.List;
-import java.util.Map;
-import java.util.WeakHashMap;
 
 @Name("While Loop")
 @Description("While Loop sections are loops that will just keep repeating as long as a condition is met.")
@@ -69,7 +67,6 @@ public class SecWhile extends LoopSection {
 	private TriggerItem actualNext;
 
 	private boolean doWhile;
-	private boolean ranDoWhile = false;
 
 	@Override
 	public boolean init(Expression<?>[] exprs,
@@ -93,9 +90,13 @@ public class SecWhile extends LoopSection {
 	@Nullable
 	@Override
 	protected TriggerItem walk(Event event) {
-		if ((doWhile && !ranDoWhile) || condition.check(event)) {
-			ranDoWhile = true;
-			currentLoopCounter.put(event, (currentLoopCounter.getOrDefault(event, 0L)) + 1);
+		LoopFrame frame = getFrame(event);
+		if ((doWhile && frame == null) || condition.check(event)) {
+			if (frame == null) {
+				frame = new LoopFrame();
+				startFrame(event, frame);
+			}
+			frame.nextIteration();
 			return walk(event, true);
 		} else {
 			exit(event);
@@ -120,10 +121,4 @@ public class SecWhile extends LoopSection {
 		return (doWhile ? "do " : "") + "while " + condition.toString(event, debug);
 	}
 
-	@Override
-	public void exit(Event event) {
-		ranDoWhile = false;
-		super.exit(event);
-	}
-
 }
@@ -39,6 +39,7 @@ import org.skriptlang.skript.lang.script.Script;
 import ch.njol.skript.lang.SkriptParser;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.VariableString;
+import ch.njol.skript.lang.parser.ParserInstance;
 import org.skriptlang.skript.lang.entry.EntryContainer;
 import org.skriptlang.skript.lang.entry.KeyValueEntryData;
 import org.skriptlang.skript.lang.structure.Structure;
@@ -90,6 +91,8 @@ public class StructCommand extends Structure {
 	private static final AtomicBoolean SYNC_COMMANDS = new AtomicBoolean();
 
 	static {
+		ParserInstance.registerData(CommandData.class, CommandData::new);
+
 		Skript.registerStructure(
 			StructCommand.class,
 			EntryValidator.builder()
@@ -189,12 +192,7 @@ public class StructCommand extends Structure {
 		}
 
 		String command = matcher.group(1).toLowerCase();
-		ScriptCommand existingCommand = Commands.getScriptCommand(command);
-		if (existingCommand != null && existingCommand.getLabel().equals(command)) {
-			Script script = existingCommand.getScript();
-			Skript.error("A command with the name /" + existingCommand.getName() + " is already defined"
-				+ (script != null ? (" in " + script.getConfig().getFileName()) : "")
-			);
+		if (isAlreadyDefined(command)) {
 			getParser().deleteCurrentEvent();
 			return false;
 		}
@@ -202,7 +200,7 @@ public class StructCommand extends Structure {
 		String arguments = matcher.group(3) == null ? "" : matcher.group(3);
 		StringBuilder pattern = new StringBuilder();
 
-		List<Argument<?>> currentArguments = Commands.currentArguments = new ArrayList<>(); //Mirre
+		List<Argument<?>> currentArguments = new ArrayList<>(); //Mirre
 		matcher = ARGUMENT_PATTERN.matcher(arguments);
 		int lastEnd = 0;
 		int optionals = 0;
@@ -294,13 +292,20 @@ public class StructCommand extends Structure {
 		if (Skript.debug() || node.debug())
 			Skript.debug("command " + desc + ":");
 
-		Commands.currentArguments = currentArguments;
+		CommandData commandData = getParser().getData(CommandData.class);
+		commandData.arguments = currentArguments;
+		// The deprecated static would be shared by the scripts loading in parallel
+		boolean setStatic = !ScriptLoader.isParallel();
+		if (setStatic)
+			Commands.currentArguments = currentArguments;
 		try {
 			scriptCommand = new ScriptCommand(getParser().getCurrentScript(), command, pattern.toString(), currentArguments, description, prefix,
 				usage, aliases, permission, permissionMessage, cooldown, cooldownMessage, cooldownBypass, cooldownStorage,
 				executableBy, entryContainer.get("trigger", SectionNode.class, false));
 		} finally {
-			Commands.currentArguments = null;
+			commandData.arguments = null;
+			if (setStatic)
+				Commands.currentArguments = null;
 		}
 
 		if (Skript.logVeryHigh() && !Skript.debug())
@@ -308,18 +313,41 @@ public class StructCommand extends Structure {
 
 		getParser().deleteCurrentEvent();
 
-		Commands.registerCommand(scriptCommand);
-		SYNC_COMMANDS.set(true);
-
 		return true;
 	}
 
 	@Override
 	public boolean postLoad() {
+		// Commands are registered here rather than in load, as scripts may be loaded in parallel,
+		// whereas this is called for one structure after another in a fixed order
+		assert scriptCommand != null;
+		if (isAlreadyDefined(scriptCommand.getLabel()))
+			return false;
+		Commands.registerCommand(scriptCommand);
+		SYNC_COMMANDS.set(true);
+
 		attemptCommandSync();
 		return true;
 	}
 
+	/**
+	 * Errors if a command with the given label has already been registered.
+	 *
+	 * @param command the label of the command.
+	 * @return whether a command with the given label has already been registered.
+	 */
+	private boolean isAlreadyDefined(String command) {
+		ScriptCommand existingCommand = Commands.getScriptCommand(command);
+		if (existingCommand != null && existingCommand.getLabel().equals(command)) {
+			Script script = existingCommand.getScript();
+			Skript.error("A command with the name /" + existingCommand.getName() + " is already defined"
+				+ (script != null ? (" in " + script.getConfig().getFileName()) : "")
+			);
+			return true;
+		}
+		return false;
+	}
+
 	@Override
 	public void unload() {
 		assert scriptCommand != null; // This method should never be called if one of the loading methods fail
@@ -353,4 +381,27 @@ public class StructCommand extends Structure {
 		return "command";
 	}
 
+	/**
+	 * Holds the arguments of the command whose trigger is being parsed by a {@link ParserInstance}.
+	 */
+	public static class CommandData extends ParserInstance.Data {
+
+		@Nullable
+		private List<Argument<?>> arguments;
+
+		public CommandData(ParserInstance parserInstance) {
+			super(parserInstance);
+		}
+
+		/**
+		 * @return the arguments of the command whose trigger is being parsed,
+		 * or null if no command trigger is being parsed.
+		 */
+		@Nullable
+		public List<Argument<?>> getArguments() {
+			return arguments;
+		}
+
+	}
+
 }
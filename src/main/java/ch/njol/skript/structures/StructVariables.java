@@ -242,8 +242,13 @@ public class StructVariables extends Structure {
 		return true;
 	}
 
+	/**
+	 * Sets the default variables while pre-loading, as that happens in order for all loading scripts,
+	 * whereas structures of different scripts may be loaded in parallel,
+	 * which would make the script whose default value a variable gets depend on timing.
+	 */
 	@Override
-	public boolean load() {
+	public boolean preLoad() {
 		DefaultVariables data = getParser().getCurrentScript().getData(DefaultVariables.class);
 		if (data == null) { // this shouldn't happen
 			Skript.error("Default variables data missing");
@@ -261,6 +266,11 @@ public class StructVariables extends Structure {
 		return true;
 	}
 
+	@Override
+	public boolean load() {
+		return true;
+	}
+
 	@Override
 	public void postUnload() {
 		Script script = getParser().getCurrentScript();
@@ -0,0 +1,724 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.classes.ClassInfo;
+import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.ExceptionUtils;
+import ch.njol.skript.util.FileUtils;
+import ch.njol.skript.util.Task;
+import ch.njol.skript.util.Version;
+import ch.njol.util.NonNullPair;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A variable storage that stores its content in a binary file of length-prefixed records,
+ * which is about half the size of a {@link FlatFileStorage CSV file} and much faster to load.
+ * <p>
+ * The file starts with the {@link #MAGIC magic number} and the {@link #FORMAT_VERSION format version},
+ * followed by one record per variable change:
+ * <ul>
+ *     <li>the length of the name in bytes ({@code int}), and the UTF-8 encoded name,</li>
+ *     <li>the length of the type's code name ({@code byte}), and the code name,
+ *     or only {@code 0} if the variable was deleted,</li>
+ *     <li>if the variable wasn't deleted, the length of the serialized value ({@code int}), and the value.</li>
+ * </ul>
+ * Like the CSV file, changes are appended to the file, and the file is rewritten every once in a while.
+ */
+public class BinaryFileStorage extends VariablesStorage {
+
+	/**
+	 * The magic number at the start of the file, {@code SKVB}.
+	 */
+	private static final int MAGIC = 0x534B5642;
+
+	/**
+	 * The version of the record format.
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	/**
+	 * The maximum length of a variable name in bytes.
+	 * A record with a longer name is treated as corrupt, as real variable names are far shorter.
+	 */
+	private static final int MAX_NAME_LENGTH = 1 << 20;
+
+	/**
+	 * The size of the buffers used to read and write the file.
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The delay for the save task.
+	 */
+	private static final long SAVE_TASK_DELAY = 5 * 60 * 20;
+
+	/**
+	 * The period for the save task, how long (in ticks) between each save.
+	 */
+	private static final long SAVE_TASK_PERIOD = 5 * 60 * 20;
+
+	/**
+	 * The amount of {@link #changes} needed
+	 * for a new {@link #saveVariables(boolean) save}.
+	 */
+	private static final int REQUIRED_CHANGES_FOR_RESAVE = 1000;
+
+	/**
+	 * The channel changes are appended to, or {@code null} if not connected.
+	 * <p>
+	 * Must be accessed while holding the {@link #connectionLock}.
+	 */
+	@Nullable
+	private FileChannel channel;
+
+	/**
+	 * The changes that have not been written to the {@link #channel} yet.
+	 * These are written together once no more changes are queued, or the buffer is full.
+	 * <p>
+	 * Must be accessed while holding the {@link #connectionLock}.
+	 */
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	/**
+	 * The records of the changes written while the file is being {@link #saveVariables(boolean) rewritten},
+	 * or {@code null} if the file isn't being rewritten.
+	 * <p>
+	 * Must be accessed while holding the {@link #connectionLock}.
+	 */
+	@Nullable
+	private List<byte[]> changesDuringSave = null;
+
+	/**
+	 * Whether the storage has been loaded.
+	 */
+	private volatile boolean loaded = false;
+
+	/**
+	 * The amount of variable changes written since the last full save.
+	 *
+	 * @see #REQUIRED_CHANGES_FOR_RESAVE
+	 */
+	private final AtomicInteger changes = new AtomicInteger(0);
+
+	/**
+	 * The save task.
+	 *
+	 * @see #saveVariables(boolean)
+	 */
+	@Nullable
+	private Task saveTask;
+
+	/**
+	 * Whether there was an error while loading variables.
+	 * <p>
+	 * Set back to {@code false} when a backup has been made
+	 * of the variable file that caused the error.
+	 */
+	private boolean loadError = false;
+
+	/**
+	 * Create a new binary storage of the given name.
+	 *
+	 * @param name the name.
+	 */
+	BinaryFileStorage(String name) {
+		super(name);
+	}
+
+	/**
+	 * Loads the variables in the binary file, converting the CSV file
+	 * given in the {@code convert from} entry first if the binary file is empty.
+	 * <p>
+	 * Doesn't lock the connection, as required by
+	 * {@link Variables#variableLoaded(String, Object, VariablesStorage)}.
+	 */
+	@Override
+	protected boolean load_i(SectionNode sectionNode) {
+		SkriptLogger.setNode(null);
+
+		File file = this.file;
+		if (file == null) {
+			assert false : this;
+			return false;
+		}
+
+		String convertFrom = sectionNode.getValue("convert from");
+		if (convertFrom != null && file.length() == 0) {
+			File csvFile = new File(convertFrom).getAbsoluteFile();
+			if (!csvFile.isFile()) {
+				Skript.error("The file '" + convertFrom + "' to convert the variables of the database '" + databaseName + "' from doesn't exist");
+				return false;
+			}
+			if (!convertFromCSV(csvFile, file))
+				return false;
+		}
+
+		IOException ioException = null;
+		AtomicInteger unsuccessfulVariableCount = new AtomicInteger();
+		StringBuilder invalid = new StringBuilder();
+		long validLength = 0;
+		boolean truncated = false;
+		boolean corrupt = false;
+
+		if (file.length() > 0) {
+			// Deserializes the variables in parallel
+			VariablesLoader loader = new VariablesLoader(this, (name, type) -> {
+				if (invalid.length() != 0)
+					invalid.append(", ");
+
+				invalid.append(name);
+				unsuccessfulVariableCount.incrementAndGet();
+			});
+
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), BUFFER_SIZE))) {
+				if (in.readInt() != MAGIC) {
+					Skript.error("The file '" + file.getName() + "' of the database '" + databaseName + "' is not a binary variables file");
+					return false;
+				}
+				int version = in.readInt();
+				if (version > FORMAT_VERSION) {
+					Skript.error("The file '" + file.getName() + "' of the database '" + databaseName + "' was written by a newer version of Skript");
+					return false;
+				}
+				validLength = 8;
+
+				while (true) {
+					int nameLength;
+					try {
+						nameLength = in.readInt();
+					} catch (EOFException e) {
+						// End of file, unless a record was cut off within its first bytes
+						truncated = validLength < file.length();
+						break;
+					}
+
+					// The bytes of the file left after the length of the name
+					long remaining = file.length() - validLength - 4;
+					String name;
+					String type = null;
+					byte[] value = null;
+					try {
+						name = readString(in, checkLength(nameLength, Math.min(MAX_NAME_LENGTH, remaining)));
+						remaining -= nameLength + 1;
+						int typeLength = in.readUnsignedByte();
+						if (typeLength != 0) {
+							type = readString(in, checkLength(typeLength, remaining));
+							remaining -= typeLength + 4;
+							value = new byte[checkLength(in.readInt(), remaining)];
+							in.readFully(value);
+						}
+					} catch (CorruptRecordException e) {
+						// Nothing after a corrupt record can be trusted, so it's discarded like an incomplete record
+						truncated = true;
+						corrupt = true;
+						break;
+					} catch (EOFException e) {
+						// The server likely stopped while this record was being written
+						truncated = true;
+						break;
+					}
+					validLength += 4 + nameLength + 1 + (type == null ? 0 : type.length() + 4 + value.length);
+
+					if (type == null) {
+						// Deleted variables don't need to be loaded
+						continue;
+					}
+
+					ClassInfo<?> classInfo = Classes.getClassInfoNoError(type);
+					if (classInfo == null || classInfo.getSerializer() == null) {
+						// Couldn't deserialize variable
+						if (invalid.length() != 0)
+							invalid.append(", ");
+
+						invalid.append(name);
+						unsuccessfulVariableCount.incrementAndGet();
+						continue;
+					}
+
+					loader.load(name, classInfo, value);
+				}
+			} catch (IOException e) {
+				loadError = true;
+				ioException = e;
+			} finally {
+				loader.finish();
+			}
+		}
+
+		if (ioException != null || unsuccessfulVariableCount.get() > 0 || truncated) {
+			// Something's wrong
+			if (unsuccessfulVariableCount.get() > 0) {
+				Skript.error(unsuccessfulVariableCount + " variable" + (unsuccessfulVariableCount.get() == 1 ? "" : "s") +
+						" could not be loaded!");
+				Skript.error("Affected variables: " + invalid.toString());
+			}
+
+			if (ioException != null) {
+				Skript.error("An I/O error occurred while loading the variables: " + ExceptionUtils.toString(ioException));
+				Skript.error("This means that some to all variables could not be loaded!");
+			}
+
+			if (corrupt) {
+				Skript.error("The variable change at byte " + validLength + " of " + file.getName() + " is corrupt, " +
+					"it and all variable changes after it have been discarded");
+			} else if (truncated) {
+				Skript.warning("The last variable change in " + file.getName() + " was incomplete and has been discarded");
+			}
+
+			try {
+				// Back up the file
+				File backupFile = FileUtils.backup(file);
+				Skript.info("Created a backup of " + file.getName() + " as " + backupFile.getName());
+
+				loadError = false;
+			} catch (IOException ex) {
+				Skript.error("Could not backup " + file.getName() + ": " + ex.getMessage());
+			}
+
+			if (truncated && ioException == null) {
+				// Remove the incomplete record, new changes would be unreadable after it
+				try (FileChannel truncateChannel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+					truncateChannel.truncate(validLength);
+				} catch (IOException e) {
+					Skript.error("Could not remove the incomplete variable change from " + file.getName() + ": " + ExceptionUtils.toString(e));
+					return false;
+				}
+			}
+		}
+
+		if (!connect())
+			return false;
+
+		// Start the save task
+		saveTask = new Task(Skript.getInstance(), SAVE_TASK_DELAY, SAVE_TASK_PERIOD, true) {
+			@Override
+			public void run() {
+				// Due to concurrency, the amount of changes may change between the get and set call
+				//  but that's not a big issue
+				if (changes.get() >= REQUIRED_CHANGES_FOR_RESAVE) {
+					saveVariables(false);
+					changes.set(0);
+				}
+			}
+		};
+
+		return ioException == null;
+	}
+
+	/**
+	 * Converts the given CSV file of a {@link FlatFileStorage} to a binary file,
+	 * without deserializing the variables.
+	 *
+	 * @param csvFile the CSV file to read.
+	 * @param file the binary file to write.
+	 * @return whether the conversion succeeded.
+	 */
+	private boolean convertFromCSV(File csvFile, File file) {
+		Skript.info("Converting the variables in " + csvFile.getName() + " to the binary format of the database '" + databaseName + "'...");
+
+		Version v2_1 = new Version(2, 1);
+		int converted = 0;
+		int invalid = 0;
+		try (
+			BufferedReader reader = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(csvFile.toPath()), FlatFileStorage.FILE_CHARSET));
+			OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER_SIZE)
+		) {
+			out.write(header());
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+
+				if (line.isEmpty() || line.startsWith("#")) {
+					if (line.startsWith("# version:")) {
+						try {
+							Version csvSkriptVersion = new Version(line.substring("# version:".length()).trim());
+							if (csvSkriptVersion.isSmallerThan(v2_1)) {
+								Skript.error(csvSkriptVersion + " is too old to be converted, please load " + csvFile.getName() + " with a CSV database once first");
+								out.close();
+								Files.write(file.toPath(), new byte[0]);
+								return false;
+							}
+						} catch (IllegalArgumentException ignored) {
+						}
+					}
+
+					continue;
+				}
+
+				String[] split = FlatFileStorage.splitCSV(line);
+				if (split == null || split.length != 3) {
+					invalid++;
+					continue;
+				}
+
+				// A 'null' type is a deletion, which must be kept as the variable may be set in an earlier line
+				out.write(split[1].equals("null") ? record(split[0], null, null) : record(split[0], split[1], FlatFileStorage.decode(split[2])));
+				converted++;
+			}
+		} catch (IOException e) {
+			Skript.error("Could not convert " + csvFile.getName() + ": " + ExceptionUtils.toString(e));
+			try {
+				// Don't load a partially converted file
+				Files.write(file.toPath(), new byte[0]);
+			} catch (IOException ignored) {}
+			return false;
+		}
+
+		if (invalid > 0)
+			Skript.error(invalid + " line" + (invalid == 1 ? "" : "s") + " of " + csvFile.getName() + " could not be converted!");
+		Skript.info("Converted " + converted + " lines of " + csvFile.getName() + " to " + file.getName());
+		return true;
+	}
+
+	@Override
+	protected void allLoaded() {
+		// no transaction support
+	}
+
+	@Override
+	protected boolean requiresFile() {
+		return true;
+	}
+
+	@Override
+	protected File getFile(String fileName) {
+		return new File(fileName);
+	}
+
+	@Override
+	protected final void disconnect() {
+		synchronized (connectionLock) {
+			clearChangesQueue();
+			FileChannel channel = this.channel;
+			if (channel == null)
+				return;
+
+			try {
+				flushBuffer(channel);
+				channel.close();
+			} catch (IOException e) {
+				Skript.error("Could not write the variables of the database '" + databaseName + "': " + ExceptionUtils.toString(e));
+			}
+			this.channel = null;
+		}
+	}
+
+	@Override
+	protected final boolean connect() {
+		synchronized (connectionLock) {
+			assert file != null; // file should be non-null after load
+
+			if (channel != null)
+				return true;
+
+			try {
+				FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+				if (channel.size() == 0)
+					channel.write(ByteBuffer.wrap(header()));
+				this.channel = channel;
+				loaded = true;
+				return true;
+			} catch (IOException e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e);
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		clearChangesQueue();
+		super.close();
+		saveVariables(true); // also closes the channel
+	}
+
+	@Override
+	protected boolean save(String name, @Nullable String type, @Nullable byte[] value) {
+		synchronized (connectionLock) {
+			if (!loaded && type == null) {
+				// deleting variables is not really required for this kind of storage,
+				//  as it will be completely rewritten every once in a while,
+				//  and at least once when the server stops.
+				return true;
+			}
+
+			FileChannel channel = this.channel;
+			if (channel == null)
+				return false;
+
+			byte[] record = record(name, type, value);
+			List<byte[]> changesDuringSave = this.changesDuringSave;
+			if (changesDuringSave != null)
+				changesDuringSave.add(record);
+
+			try {
+				if (record.length > buffer.remaining())
+					flushBuffer(channel);
+				if (record.length > buffer.capacity()) {
+					writeFully(channel, ByteBuffer.wrap(record));
+				} else {
+					buffer.put(record);
+				}
+
+				// Group commit: write all changes that were queued together at once
+				if (changesQueue.isEmpty())
+					flushBuffer(channel);
+			} catch (IOException e) {
+				Skript.error("Could not save the variable {" + name + "} to the database '" + databaseName + "': " + ExceptionUtils.toString(e));
+				return false;
+			}
+
+			changes.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the buffered changes to the given channel.
+	 * Must be called while holding the {@link #connectionLock}.
+	 */
+	private void flushBuffer(FileChannel channel) throws IOException {
+		buffer.flip();
+		try {
+			writeFully(channel, buffer);
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+		while (data.hasRemaining())
+			channel.write(data);
+	}
+
+	/**
+	 * Completely rewrites the binary file from a snapshot of the variables,
+	 * compacting the changes appended to it since the last rewrite.
+	 * This works the same way as {@link FlatFileStorage#saveVariables(boolean)}.
+	 *
+	 * @param finalSave whether this is the last save in this session or not.
+	 */
+	public final synchronized void saveVariables(boolean finalSave) {
+		if (finalSave) {
+			// Cancel save and backup tasks, not needed with final save anyway
+			if (saveTask != null)
+				saveTask.cancel();
+			if (backupTask != null)
+				backupTask.cancel();
+		}
+
+		File file = this.file;
+		if (file == null) {
+			// This storage requires a file, so file should be nonnull
+			assert false : this;
+			return;
+		}
+
+		try {
+			if (loadError) {
+				synchronized (connectionLock) {
+					// There was an error while loading the file, create a backup of it
+					try {
+						File backup = FileUtils.backup(file);
+						Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
+						loadError = false;
+					} catch (IOException e) {
+						Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
+						Skript.error("No variables are saved!");
+						return;
+					}
+				}
+			}
+
+			// Start keeping track of changes before taking the snapshot, so no change can be missed
+			List<byte[]> changesDuringSave = new ArrayList<>();
+			synchronized (connectionLock) {
+				this.changesDuringSave = changesDuringSave;
+			}
+
+			File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tempFile.toPath()), BUFFER_SIZE)) {
+				out.write(header());
+				for (VariablesStripe stripe : Variables.getVariableStripes()) {
+					// Only lock one stripe at a time, and only while copying its variables
+					List<NonNullPair<String, Object>> snapshot = new ArrayList<>();
+					stripe.lock.readLock().lock();
+					try {
+						FlatFileStorage.snapshot(snapshot, "", stripe.variables.treeMap);
+					} finally {
+						stripe.lock.readLock().unlock();
+					}
+					save(out, snapshot);
+				}
+
+				synchronized (connectionLock) {
+					// Append the changes that were made while writing the snapshot
+					for (byte[] record : changesDuringSave)
+						out.write(record);
+					this.changesDuringSave = null;
+					out.close();
+
+					// Swap the files without disconnecting, which would discard queued changes
+					FileChannel channel = this.channel;
+					if (channel != null) {
+						channel.close();
+						buffer.clear(); // these changes are either part of the snapshot or of the changes during the save
+						this.channel = null;
+					}
+					try {
+						FileUtils.move(tempFile, file, true);
+					} finally {
+						// Reopen the channel before releasing the lock,
+						//  as save() can't write any changes without it
+						if (!finalSave)
+							connect();
+					}
+				}
+			} catch (IOException e) {
+				Skript.error("Unable to make a final save of the database '" + databaseName +
+						"' (no variables are lost): " + ExceptionUtils.toString(e));
+			} finally {
+				synchronized (connectionLock) {
+					this.changesDuringSave = null;
+				}
+				// Reconnect if the file couldn't be rewritten before the channel was reopened
+				if (!finalSave)
+					connect();
+			}
+		} finally {
+			// Only process queues now if it doesn't require us to wait
+			for (VariablesStripe stripe : Variables.getVariableStripes())
+				stripe.tryProcessChangeQueue();
+		}
+	}
+
+	/**
+	 * Saves the variables of the given snapshot that belong to this storage.
+	 *
+	 * @param out the stream to write the records to.
+	 * @param snapshot the names and values of the variables, in order.
+	 */
+	private void save(OutputStream out, List<NonNullPair<String, Object>> snapshot) throws IOException {
+		for (NonNullPair<String, Object> variable : snapshot) {
+			String name = variable.getFirst();
+			SerializedVariable.Value serializedValue;
+			try {
+				// Make sure this variable is ours to store
+				serializedValue = Variables.getStorage(name) == this ? LazyValue.serialize(variable.getSecond()) : null;
+			} catch (Exception ex) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(ex, "Error saving variable named " + name);
+				continue;
+			}
+
+			if (serializedValue != null)
+				out.write(record(name, serializedValue.type, serializedValue.data));
+		}
+	}
+
+	/**
+	 * @return the header of a binary variables file.
+	 */
+	private static byte[] header() {
+		return ByteBuffer.allocate(8).putInt(MAGIC).putInt(FORMAT_VERSION).array();
+	}
+
+	/**
+	 * Encodes the given variable change as a record.
+	 *
+	 * @param name the name of the variable.
+	 * @param type the code name of the value's type, or {@code null} if the variable was deleted.
+	 * @param value the serialized value, or {@code null} if the variable was deleted.
+	 * @return the record.
+	 */
+	private static byte[] record(String name, @Nullable String type, @Nullable byte[] value) {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+		if (type == null) {
+			return ByteBuffer.allocate(4 + nameBytes.length + 1)
+				.putInt(nameBytes.length).put(nameBytes)
+				.put((byte) 0)
+				.array();
+		}
+
+		assert value != null;
+		// Code names only consist of latin letters and arabic numbers
+		byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+		assert typeBytes.length > 0 && typeBytes.length <= 255 : type;
+		return ByteBuffer.allocate(4 + nameBytes.length + 1 + typeBytes.length + 4 + value.length)
+			.putInt(nameBytes.length).put(nameBytes)
+			.put((byte) typeBytes.length).put(typeBytes)
+			.putInt(value.length).put(value)
+			.array();
+	}
+
+	/**
+	 * Thrown when a record contains an impossible length.
+	 */
+	private static final class CorruptRecordException extends IOException {
+
+		CorruptRecordException(String message) {
+			super(message);
+		}
+
+	}
+
+	/**
+	 * @param length a length read from a record.
+	 * @param max the maximum valid length, usually the amount of bytes left in the file.
+	 * @return the given length.
+	 * @throws CorruptRecordException if the length is negative or larger than the maximum.
+	 */
+	private static int checkLength(int length, long max) throws CorruptRecordException {
+		if (length < 0 || length > max)
+			throw new CorruptRecordException("Invalid length " + length + ", the maximum is " + max);
+		return length;
+	}
+
+	private static String readString(DataInputStream in, int length) throws IOException {
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
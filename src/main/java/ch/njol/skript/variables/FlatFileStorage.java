@@ -19,6 +19,7 @@
 package ch.njol.skript.variables;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.Variable;
 import ch.njol.skript.log.SkriptLogger;
@@ -28,6 +29,7 @@ import ch.njol.skript.util.FileUtils;
 import ch.njol.skript.util.Task;
 import ch.njol.skript.util.Utils;
 import ch.njol.skript.util.Version;
+import ch.njol.util.NonNullPair;
 import ch.njol.util.NotifyingReference;
 import org.eclipse.jdt.annotation.Nullable;
 
@@ -42,6 +44,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -80,11 +83,20 @@ public class FlatFileStorage extends VariablesStorage {
 	 * to the {@link #file}.
 	 * <p>
 	 * A Lock on this object must be acquired after connectionLock
-	 * if that lock is used
-	 * (and thus also after {@link Variables#getReadLock()}).
+	 * if that lock is used.
 	 */
 	private final NotifyingReference<PrintWriter> changesWriter = new NotifyingReference<>();
 
+	/**
+	 * The changes written to the file while it is being {@link #saveVariables(boolean) rewritten},
+	 * as the values of their CSV lines, or {@code null} if the file isn't being rewritten.
+	 * These are appended to the rewritten file, as they may not be part of the snapshot it was written from.
+	 * <p>
+	 * Must be accessed while holding the lock on {@link #changesWriter}.
+	 */
+	@Nullable
+	private List<String[]> changesDuringSave = null;
+
 	/**
 	 * Whether the storage has been loaded.
 	 */
@@ -150,9 +162,18 @@ public class FlatFileStorage extends VariablesStorage {
 
 		// Keep track of loading errors
 		IOException ioException = null;
-		int unsuccessfulVariableCount = 0;
+		AtomicInteger unsuccessfulVariableCount = new AtomicInteger();
 		StringBuilder invalid = new StringBuilder();
 
+		// Deserializes the variables in parallel
+		VariablesLoader loader = new VariablesLoader(this, (name, type) -> {
+			if (invalid.length() != 0)
+				invalid.append(", ");
+
+			invalid.append(name);
+			unsuccessfulVariableCount.incrementAndGet();
+		});
+
 		// The Skript version this CSV was created with
 		Version csvSkriptVersion;
 
@@ -196,20 +217,18 @@ public class FlatFileStorage extends VariablesStorage {
 						invalid.append(", ");
 
 					invalid.append(split == null ? "<unknown>" : split[0]);
-					unsuccessfulVariableCount++;
+					unsuccessfulVariableCount.incrementAndGet();
 					continue;
 				}
 
 				if (split[1].equals("null")) {
-					Variables.variableLoaded(split[0], null, this);
-				} else {
-					Object deserializedValue;
-					if (update2_1) {
-						// Use old deserialization if variables come from old Skript version
-						deserializedValue = Classes.deserialize(split[1], split[2]);
-					} else {
-						deserializedValue = Classes.deserialize(split[1], decode(split[2]));
-					}
+					// Deleted variables don't need to be loaded
+					continue;
+				}
+
+				if (update2_1) {
+					// Use old deserialization if variables come from old Skript version
+					Object deserializedValue = Classes.deserialize(split[1], split[2]);
 
 					if (deserializedValue == null) {
 						// Couldn't deserialize variable
@@ -217,7 +236,7 @@ public class FlatFileStorage extends VariablesStorage {
 							invalid.append(", ");
 
 						invalid.append(split[0]);
-						unsuccessfulVariableCount++;
+						unsuccessfulVariableCount.incrementAndGet();
 						continue;
 					}
 
@@ -226,18 +245,34 @@ public class FlatFileStorage extends VariablesStorage {
 						deserializedValue = Utils.replaceChatStyles((String) deserializedValue);
 					}
 
-					Variables.variableLoaded(split[0], deserializedValue, this);
+					loader.loaded(split[0], deserializedValue);
+					continue;
 				}
+
+				ClassInfo<?> type = Classes.getClassInfoNoError(split[1]);
+				if (type == null || type.getSerializer() == null) {
+					// Couldn't deserialize variable
+					if (invalid.length() != 0)
+						invalid.append(", ");
+
+					invalid.append(split[0]);
+					unsuccessfulVariableCount.incrementAndGet();
+					continue;
+				}
+
+				loader.load(split[0], type, decode(split[2]));
 			}
 		} catch (IOException e) {
 			loadError = true;
 			ioException = e;
+		} finally {
+			loader.finish();
 		}
 
-		if (ioException != null || unsuccessfulVariableCount > 0 || update2_1) {
+		if (ioException != null || unsuccessfulVariableCount.get() > 0 || update2_1) {
 			// Something's wrong (or just an old version)
-			if (unsuccessfulVariableCount > 0) {
-				Skript.error(unsuccessfulVariableCount + " variable" + (unsuccessfulVariableCount == 1 ? "" : "s") +
+			if (unsuccessfulVariableCount.get() > 0) {
+				Skript.error(unsuccessfulVariableCount + " variable" + (unsuccessfulVariableCount.get() == 1 ? "" : "s") +
 						" could not be loaded!");
 				Skript.error("Affected variables: " + invalid.toString());
 			}
@@ -368,9 +403,14 @@ public class FlatFileStorage extends VariablesStorage {
 					}
 				}
 
-				writeCSV(printWriter, name, type, value == null ? "" : encode(value));
+				String[] line = {name, type, value == null ? "" : encode(value)};
+				writeCSV(printWriter, line);
 				printWriter.flush();
 
+				List<String[]> changesDuringSave = this.changesDuringSave;
+				if (changesDuringSave != null)
+					changesDuringSave.add(line);
+
 				changes.incrementAndGet();
 			}
 		}
@@ -378,15 +418,22 @@ public class FlatFileStorage extends VariablesStorage {
 	}
 
 	/**
-	 * Completely rewrites the CSV file.
+	 * Completely rewrites the CSV file, compacting the changes appended to it since the last rewrite.
+	 * <p>
+	 * The variables are written from a snapshot, so the locks of the {@link VariablesStripe stripes}
+	 * are only held while copying their variables, and changes can still be appended to the file meanwhile.
+	 * These changes are appended to the rewritten file as well, before it replaces the old one.
 	 * <p>
 	 * The {@code finalSave} argument is used to determine if
 	 * the {@link #saveTask save} and {@link #backupTask backup} tasks
 	 * should be cancelled, and if the storage should reconnect after saving.
 	 *
+	 * <p>
+	 * Only one rewrite can happen at a time.
+	 *
 	 * @param finalSave whether this is the last save in this session or not.
 	 */
-	public final void saveVariables(boolean finalSave) {
+	public final synchronized void saveVariables(boolean finalSave) {
 		if (finalSave) {
 			// Cancel save and backup tasks, not needed with final save anyway
 			if (saveTask != null)
@@ -395,85 +442,123 @@ public class FlatFileStorage extends VariablesStorage {
 				backupTask.cancel();
 		}
 
+		if (file == null) {
+			// This storage requires a file, so file should be nonnull
+			assert false : this;
+			return;
+		}
+
 		try {
-			// Acquire read lock
-			Variables.getReadLock().lock();
-
-			synchronized (connectionLock) {
-				try {
-					if (file == null) {
-						// This storage requires a file, so file should be nonnull
-						assert false : this;
+			if (loadError) {
+				synchronized (connectionLock) {
+					// There was an error while loading the CSV file, create a backup of it
+					try {
+						File backup = FileUtils.backup(file);
+						Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
+						loadError = false;
+					} catch (IOException e) {
+						Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
+						Skript.error("No variables are saved!");
 						return;
 					}
+				}
+			}
 
-					disconnect();
+			// Start keeping track of changes before taking the snapshot, so no change can be missed
+			List<String[]> changesDuringSave = new ArrayList<>();
+			synchronized (changesWriter) {
+				this.changesDuringSave = changesDuringSave;
+			}
 
-					if (loadError) {
-						// There was an error while loading the CSV file, create a backup of it
-						try {
-							File backup = FileUtils.backup(file);
-							Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
-							loadError = false;
-						} catch (IOException e) {
-							Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
-							Skript.error("No variables are saved!");
-							return;
-						}
+			// Write the variables to a temporary file, giving less problems if saving fails
+			//  (if saving fails during writing to the actual file,
+			//  the data in the actual file may be partially lost)
+			File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+
+			try (PrintWriter pw = new PrintWriter(tempFile, "UTF-8")) {
+				pw.println("# === Skript's variable storage ===");
+				pw.println("# Please do not modify this file manually!");
+				pw.println("#");
+				pw.println("# version: " + getSkriptVersion());
+				pw.println();
+				for (VariablesStripe stripe : Variables.getVariableStripes()) {
+					// Only lock one stripe at a time, and only while copying its variables
+					List<NonNullPair<String, Object>> snapshot = new ArrayList<>();
+					stripe.lock.readLock().lock();
+					try {
+						snapshot(snapshot, "", stripe.variables.treeMap);
+					} finally {
+						stripe.lock.readLock().unlock();
 					}
+					save(pw, snapshot);
+				}
 
-					// Write the variables to a temporary file, giving less problems if saving fails
-					//  (if saving fails during writing to the actual file,
-					//  the data in the actual file may be partially lost)
-					File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+				synchronized (connectionLock) {
+					synchronized (changesWriter) {
+						// Append the changes that were made while writing the snapshot
+						for (String[] line : changesDuringSave)
+							writeCSV(pw, line);
+						this.changesDuringSave = null;
 
-					try (PrintWriter pw = new PrintWriter(tempFile, "UTF-8")) {
-						pw.println("# === Skript's variable storage ===");
-						pw.println("# Please do not modify this file manually!");
-						pw.println("#");
-						pw.println("# version: " + Skript.getVersion());
-						pw.println();
-						save(pw, "", Variables.getVariables());
 						pw.println();
 						pw.flush();
 						pw.close();
-						FileUtils.move(tempFile, file, true);
-					} catch (IOException e) {
-						Skript.error("Unable to make a final save of the database '" + databaseName +
-								"' (no variables are lost): " + ExceptionUtils.toString(e));
-						// FIXME happens at random - check locks/threads
-					}
-				} finally {
-					// Reconnect if needed
-					if (!finalSave) {
-						connect();
+
+						// Swap the files without disconnecting, which would discard queued changes
+						PrintWriter printWriter = changesWriter.get();
+						if (printWriter != null) {
+							printWriter.close();
+							changesWriter.set(null);
+						}
+						try {
+							FileUtils.move(tempFile, file, true);
+						} finally {
+							// Reopen the writer before releasing the locks,
+							//  as save() waits for it while holding them
+							if (!finalSave)
+								connect();
+						}
 					}
 				}
-			}
-		} finally {
-			Variables.getReadLock().unlock();
-			boolean gotWriteLock = Variables.variablesLock.writeLock().tryLock();
-			if (gotWriteLock) { // Only process queue now if it doesn't require us to wait
-				try {
-					Variables.processChangeQueue();
-				} finally {
-					Variables.variablesLock.writeLock().unlock();
+			} catch (IOException e) {
+				Skript.error("Unable to make a final save of the database '" + databaseName +
+						"' (no variables are lost): " + ExceptionUtils.toString(e));
+				// FIXME happens at random - check locks/threads
+			} finally {
+				synchronized (changesWriter) {
+					this.changesDuringSave = null;
 				}
+				// Reconnect if the file couldn't be rewritten before the writer was reopened
+				if (!finalSave)
+					connect();
 			}
+		} finally {
+			// Only process queues now if it doesn't require us to wait
+			for (VariablesStripe stripe : Variables.getVariableStripes())
+				stripe.tryProcessChangeQueue();
 		}
 	}
 
 	/**
-	 * Saves the variables.
-	 * <p>
-	 * This method uses the sorted variables map to save the variables in order.
+	 * Gets the Skript version written to the file when it is {@link #saveVariables(boolean) rewritten}.
+	 * This is called while the file is being rewritten.
 	 *
-	 * @param pw the print writer to write the CSV lines too.
+	 * @return the current Skript version.
+	 */
+	Version getSkriptVersion() {
+		return Skript.getVersion();
+	}
+
+	/**
+	 * Copies the variables in the given map into the given list,
+	 * so they can be saved without holding the lock of their stripe.
+	 *
+	 * @param snapshot the list to add the names and values of the variables to.
 	 * @param parent The parent's name with {@link Variable#SEPARATOR} at the end.
 	 * @param map the variables map.
 	 */
 	@SuppressWarnings("unchecked")
-	private void save(PrintWriter pw, String parent, TreeMap<String, Object> map) {
+	static void snapshot(List<NonNullPair<String, Object>> snapshot, String parent, TreeMap<String, Object> map) {
 		// Iterate over all children
 		for (Entry<String, Object> childEntry : map.entrySet()) {
 			Object childNode = childEntry.getValue();
@@ -484,31 +569,37 @@ public class FlatFileStorage extends VariablesStorage {
 
 			if (childNode instanceof TreeMap) {
 				// TreeMap found, recurse
-				save(pw, parent + childKey + Variable.SEPARATOR, (TreeMap<String, Object>) childNode);
+				snapshot(snapshot, parent + childKey + Variable.SEPARATOR, (TreeMap<String, Object>) childNode);
 			} else {
 				// Remove variable separator if needed
 				String name = childKey == null ? parent.substring(0, parent.length() - Variable.SEPARATOR.length()) : parent + childKey;
+				snapshot.add(new NonNullPair<>(name, childNode));
+			}
+		}
+	}
 
-				try {
-					// Loop over storages to make sure this variable is ours to store
-					for (VariablesStorage storage : Variables.STORAGES) {
-						if (storage.accept(name)) {
-							if (storage == this) {
-								// Serialize the value
-								SerializedVariable.Value serializedValue = Classes.serialize(childNode);
-
-								// Write the CSV line
-								if (serializedValue != null)
-									writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
-							}
-
-							break;
-						}
-					}
-				} catch (Exception ex) {
-					//noinspection ThrowableNotThrown
-					Skript.exception(ex, "Error saving variable named " + name);
+	/**
+	 * Saves the variables of the given snapshot that belong to this storage.
+	 *
+	 * @param pw the print writer to write the CSV lines too.
+	 * @param snapshot the names and values of the variables, in order.
+	 */
+	private void save(PrintWriter pw, List<NonNullPair<String, Object>> snapshot) {
+		for (NonNullPair<String, Object> variable : snapshot) {
+			String name = variable.getFirst();
+			try {
+				// Make sure this variable is ours to store
+				if (Variables.getStorage(name) == this) {
+					// Serialize the value
+					SerializedVariable.Value serializedValue = LazyValue.serialize(variable.getSecond());
+
+					// Write the CSV line
+					if (serializedValue != null)
+						writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
 				}
+			} catch (Exception ex) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(ex, "Error saving variable named " + name);
 			}
 		}
 	}
@@ -0,0 +1,113 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.classes.ClassInfo;
+import ch.njol.skript.registrations.Classes;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * The value of a variable loaded by a storage with lazy loading enabled,
+ * which is only deserialized the first time it is accessed.
+ * <p>
+ * Lazy values only ever exist inside a {@link VariablesMap},
+ * which resolves them before returning them.
+ */
+final class LazyValue {
+
+	/**
+	 * The name of the variable, used for error messages.
+	 */
+	private final String name;
+
+	private final ClassInfo<?> type;
+
+	/**
+	 * The serialized value, or {@code null} once it has been deserialized.
+	 */
+	@Nullable
+	private byte[] data;
+
+	/**
+	 * The deserialized value, or {@code null} if it hasn't been deserialized yet
+	 * or couldn't be deserialized.
+	 */
+	@Nullable
+	private volatile Object value;
+
+	LazyValue(String name, ClassInfo<?> type, byte[] data) {
+		this.name = name;
+		this.type = type;
+		this.data = data;
+	}
+
+	/**
+	 * Deserializes the value if that hasn't happened yet.
+	 *
+	 * @return the deserialized value, always the same instance,
+	 * or {@code null} if it couldn't be deserialized.
+	 */
+	@Nullable
+	Object get() {
+		Object value = this.value;
+		if (value != null)
+			return value;
+
+		synchronized (this) {
+			byte[] data = this.data;
+			if (data == null)
+				return this.value;
+
+			value = Classes.deserialize(type, data);
+			this.data = null;
+			if (value == null) {
+				Skript.error("Cannot load the variable {" + name + "} because its value of type "
+						+ type.getCodeName() + " could not be deserialized.");
+				return null;
+			}
+			this.value = value;
+			return value;
+		}
+	}
+
+	/**
+	 * Serializes the given value of a variable,
+	 * using the serialized value of a lazy value that hasn't been accessed yet.
+	 *
+	 * @param value the value of a variable, possibly a lazy value.
+	 * @return the serialized value, or {@code null} if it can't be serialized.
+	 */
+	static SerializedVariable.@Nullable Value serialize(Object value) {
+		if (value instanceof LazyValue) {
+			LazyValue lazy = (LazyValue) value;
+			synchronized (lazy) {
+				byte[] data = lazy.data;
+				if (data != null)
+					return new SerializedVariable.Value(lazy.type.getCodeName(), data);
+			}
+			Object resolved = lazy.value;
+			if (resolved == null)
+				return null;
+			value = resolved;
+		}
+		return Classes.serialize(value);
+	}
+
+}
@@ -0,0 +1,93 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Assigns slot indices to the local variables of a structure whose names are known at parse time,
+ * e.g. {@code {_x}} but not {@code {_x::%player%}} or {@code {_x::*}}.
+ * <p>
+ * Local variables created for a trigger of the structure store the values of these variables
+ * in an array indexed by their slot, instead of looking them up by name.
+ * Variables can still be accessed by name, which will then be resolved to their slot.
+ * <p>
+ * Slots are only added while the structure is being parsed, after which this object is no longer modified.
+ *
+ * @see ch.njol.skript.lang.parser.ParserInstance#getLocalVariableSlots()
+ */
+public final class LocalVariableSlots {
+
+	/**
+	 * Slots without any variables, used for local variables that don't belong to any structure.
+	 */
+	public static final LocalVariableSlots EMPTY = new LocalVariableSlots();
+
+	private final Map<String, Integer> slots = new HashMap<>();
+	private final List<String> names = new ArrayList<>();
+
+	/**
+	 * Gets the slot of the given variable, adding it if it doesn't have one yet.
+	 * Must only be called while parsing.
+	 *
+	 * @param name the name of the variable, excluding the local variable token.
+	 *             Must already be lowercase if variable names are case-insensitive.
+	 * @return the slot of the variable.
+	 */
+	public int addSlot(String name) {
+		assert this != EMPTY;
+		Integer slot = slots.get(name);
+		if (slot != null)
+			return slot;
+		int newSlot = names.size();
+		names.add(name);
+		slots.put(name, newSlot);
+		return newSlot;
+	}
+
+	/**
+	 * @param name the name of the variable, excluding the local variable token.
+	 * @return the slot of the given variable, or {@code -1} if it doesn't have one.
+	 */
+	public int getSlot(String name) {
+		if (names.isEmpty())
+			return -1;
+		Integer slot = slots.get(name);
+		return slot != null ? slot : -1;
+	}
+
+	/**
+	 * @param slot a slot of this object.
+	 * @return the name of the variable in the given slot.
+	 */
+	public String getName(int slot) {
+		return names.get(slot);
+	}
+
+	/**
+	 * @return the amount of slots.
+	 */
+	public int size() {
+		return names.size();
+	}
+
+}
@@ -22,6 +22,8 @@ import java.io.File;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
 import java.util.concurrent.Callable;
@@ -72,10 +74,34 @@ public abstract class SQLStorage extends VariablesStorage {
 	private final static String guid = UUID.randomUUID().toString();
 
 	/**
-	 * The delay between transactions in milliseconds.
+	 * The default delay between transactions in milliseconds.
 	 */
 	private final static long TRANSACTION_DELAY = 500;
 
+	/**
+	 * The default maximum amount of variable changes to write to the database at once.
+	 */
+	private final static int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * The maximum amount of variable changes to write to the database at once.
+	 * A batch is also written before each transaction is committed.
+	 */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * The delay between transactions in milliseconds.
+	 */
+	private long flushInterval = TRANSACTION_DELAY;
+
+	/**
+	 * The variable changes that have not been written to the database yet, in the order of their first change.
+	 * Only the latest change of each variable is kept. A {@code null} value means that the variable is to be deleted.
+	 * <p>
+	 * Must be synchronized on itself. If the {@link #db} is also locked, it must be locked first.
+	 */
+	private final Map<String, SerializedVariable.@Nullable Value> pendingWrites = new LinkedHashMap<>();
+
 	/**
 	 * Creates a SQLStorage with a create table query.
 	 * 
@@ -136,6 +162,24 @@ public abstract class SQLStorage extends VariablesStorage {
 			monitor = monitor_changes;
 			this.monitor_interval = monitor_interval.getMilliSeconds();
 
+			// optional, older configs don't have these
+			if (n.getValue("batch size") != null) {
+				final Integer batchSize = getValue(n, "batch size", Integer.class);
+				if (batchSize == null)
+					return false;
+				if (batchSize < 1) {
+					Skript.error("The batch size of the database '" + databaseName + "' must be at least 1");
+					return false;
+				}
+				this.batchSize = batchSize;
+			}
+			if (n.getValue("flush interval") != null) {
+				final Timespan flushInterval = getValue(n, "flush interval", Timespan.class);
+				if (flushInterval == null)
+					return false;
+				this.flushInterval = flushInterval.getMilliSeconds();
+			}
+
 			final Database db;
 			try {
 				Database database = initialize(n);
@@ -201,20 +245,24 @@ public abstract class SQLStorage extends VariablesStorage {
 				if (hasOldTable) {
 					if (!hadNewTable) {
 						Skript.info("[2.1] Updating the database '" + databaseName + "' to the new format...");
-						try {
-							Variables.getReadLock().lock();
-							for (final Entry<String, Object> v : Variables.getVariablesHashMap().entrySet()) {
-								if (accept(v.getKey())) {// only one database was possible, so only checking this database is correct
-									@SuppressWarnings("null")
-									final SerializedVariable var = Variables.serialize(v.getKey(), v.getValue());
-									final SerializedVariable.Value d = var.value;
-									save(var.name, d == null ? null : d.type, d == null ? null : d.data);
+						int transferred = 0;
+						for (final VariablesStripe stripe : Variables.getVariableStripes()) {
+							stripe.lock.readLock().lock();
+							try {
+								for (final Entry<String, Object> v : stripe.variables.hashMap.entrySet()) {
+									if (accept(v.getKey())) {// only one database was possible, so only checking this database is correct
+										final SerializedVariable.Value d = LazyValue.serialize(v.getValue());
+										save(v.getKey(), d == null ? null : d.type, d == null ? null : d.data);
+									}
 								}
+								transferred += stripe.variables.hashMap.size();
+							} finally {
+								stripe.lock.readLock().unlock();
 							}
-							Skript.info("Updated and transferred " + Variables.getVariablesHashMap().size() + " variables to the new table.");
-						} finally {
-							Variables.getReadLock().unlock();
 						}
+						if (!writeBatch())
+							return false;
+						Skript.info("Updated and transferred " + transferred + " variables to the new table.");
 					}
 					db.query("DELETE FROM " + OLD_TABLE_NAME + " WHERE value IS NULL");
 					db.query("DELETE FROM old USING " + OLD_TABLE_NAME + " AS old, " + getTableName() + " AS new WHERE old.name = new.name");
@@ -284,7 +332,7 @@ public abstract class SQLStorage extends VariablesStorage {
 					synchronized (db) {
 						final Database db = SQLStorage.this.db.get();
 						try {
-							if (db != null)
+							if (db != null && writeBatch())
 								db.getConnection().commit();
 						} catch (final SQLException e) {
 							sqlException(e);
@@ -292,7 +340,7 @@ public abstract class SQLStorage extends VariablesStorage {
 						lastCommit = System.currentTimeMillis();
 					}
 					try {
-						Thread.sleep(Math.max(0, lastCommit + TRANSACTION_DELAY - System.currentTimeMillis()));
+						Thread.sleep(Math.max(0, lastCommit + flushInterval - System.currentTimeMillis()));
 					} catch (final InterruptedException e) {}
 				}
 			}
@@ -372,7 +420,7 @@ public abstract class SQLStorage extends VariablesStorage {
 	 *
 	 * @return
 	 */
-	private boolean prepareQueries() {
+	boolean prepareQueries() {
 		synchronized (db) {
 			final Database db = this.db.get();
 			assert db != null;
@@ -447,34 +495,73 @@ public abstract class SQLStorage extends VariablesStorage {
 	@Nullable
 	PreparedStatement monitorCleanUpQuery;
 
+	/**
+	 * Queues the variable change to be written with the next batch.
+	 * Writes the batch right away if it's full.
+	 */
 	@Override
 	protected boolean save(final String name, final @Nullable String type, final @Nullable byte[] value) {
+		// REMIND get the actual maximum size from the database
+		if (name.length() > MAX_VARIABLE_NAME_LENGTH)
+			Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
+		if (value != null && value.length > MAX_VALUE_SIZE)
+			Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
+		assert type != null || value == null;
+		final boolean full;
+		synchronized (pendingWrites) {
+			pendingWrites.put(name, type == null ? null : new SerializedVariable.Value(type, value));
+			full = pendingWrites.size() >= batchSize;
+		}
+		return !full || writeBatch();
+	}
+
+	/**
+	 * Writes all pending variable changes to the database, using one batch for all writes and one for all deletions.
+	 * Doesn't commit the changes.
+	 *
+	 * @return Whether the changes were written successfully.
+	 */
+	boolean writeBatch() {
 		synchronized (db) {
-			// REMIND get the actual maximum size from the database
-			if (name.length() > MAX_VARIABLE_NAME_LENGTH)
-				Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
-			if (value != null && value.length > MAX_VALUE_SIZE)
-				Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
-			try {
-				if (type == null) {
-					assert value == null;
-					final PreparedStatement deleteQuery = this.deleteQuery;
-					assert deleteQuery != null;
-					deleteQuery.setString(1, name);
-					deleteQuery.executeUpdate();
-				} else {
-					int i = 1;
-					final PreparedStatement writeQuery = this.writeQuery;
-					assert writeQuery != null;
-					writeQuery.setString(i++, name);
-					writeQuery.setString(i++, type);
-					writeQuery.setBytes(i++, value); // SQLite desn't support setBlob
-					writeQuery.setString(i++, guid);
-					writeQuery.executeUpdate();
+			synchronized (pendingWrites) {
+				if (pendingWrites.isEmpty())
+					return true;
+				final PreparedStatement writeQuery = this.writeQuery, deleteQuery = this.deleteQuery;
+				assert writeQuery != null && deleteQuery != null;
+				try {
+					boolean writes = false, deletes = false;
+					// each variable is only contained once, so the order of the two batches doesn't matter
+					for (final Entry<String, SerializedVariable.@Nullable Value> change : pendingWrites.entrySet()) {
+						final SerializedVariable.Value value = change.getValue();
+						if (value == null) {
+							deleteQuery.setString(1, change.getKey());
+							deleteQuery.addBatch();
+							deletes = true;
+						} else {
+							int i = 1;
+							writeQuery.setString(i++, change.getKey());
+							writeQuery.setString(i++, value.type);
+							writeQuery.setBytes(i++, value.data); // SQLite desn't support setBlob
+							writeQuery.setString(i++, guid);
+							writeQuery.addBatch();
+							writes = true;
+						}
+					}
+					if (deletes)
+						deleteQuery.executeBatch();
+					if (writes)
+						writeQuery.executeBatch();
+					pendingWrites.clear();
+				} catch (final SQLException e) {
+					// the changes are kept, and written again with the next batch
+					sqlException(e);
+					return false;
+				} finally {
+					try { // don't let a failed batch be executed again with the next one
+						writeQuery.clearBatch();
+						deleteQuery.clearBatch();
+					} catch (final SQLException e) {}
 				}
-			} catch (final SQLException e) {
-				sqlException(e);
-				return false;
 			}
 		}
 		return true;
@@ -487,6 +574,7 @@ public abstract class SQLStorage extends VariablesStorage {
 			final Database db = this.db.get();
 			if (db != null) {
 				try {
+					writeBatch();
 					db.getConnection().commit();
 				} catch (final SQLException e) {
 					sqlException(e);
@@ -563,78 +651,38 @@ public abstract class SQLStorage extends VariablesStorage {
 
 	/**
 	 * Doesn't lock the database - {@link #save(String, String, byte[])} does that // what?
+	 * <p>
+	 * The rows are read on the calling thread, while the values are deserialized in parallel
+	 * and passed on to {@link Variables} on Bukkit's main thread.
 	 */
 	private void loadVariables(final ResultSet r) throws SQLException {
-//		assert !Thread.holdsLock(db);
-//		synchronized (syncDeserializing) {
-
-		final SQLException e = Task.callSync(new Callable<SQLException>() {
-			@Override
-			@Nullable
-			public SQLException call() throws Exception {
-				try {
-					while (r.next()) {
-						int i = 1;
-						final String name = r.getString(i++);
-						if (name == null) {
-							Skript.error("Variable with NULL name found in the database '" + databaseName + "', ignoring it");
-							continue;
-						}
-						final String type = r.getString(i++);
-						final byte[] value = r.getBytes(i++); // Blob not supported by SQLite
-						lastRowID = r.getLong(i++);
-						if (value == null) {
-							Variables.variableLoaded(name, null, SQLStorage.this);
-						} else {
-							final ClassInfo<?> c = Classes.getClassInfoNoError(type);
-							@SuppressWarnings("unused")
-							Serializer<?> s;
-							if (c == null || (s = c.getSerializer()) == null) {
-								Skript.error("Cannot load the variable {" + name + "} from the database '" + databaseName + "', because the type '" + type + "' cannot be recognised or cannot be stored in variables");
-								continue;
-							}
-//					if (s.mustSyncDeserialization()) {
-//						syncDeserializing.add(new VariableInfo(name, value, c));
-//					} else {
-							final Object d = Classes.deserialize(c, value);
-							if (d == null) {
-								Skript.error("Cannot load the variable {" + name + "} from the database '" + databaseName + "', because it cannot be loaded as " + c.getName().withIndefiniteArticle());
-								continue;
-							}
-							Variables.variableLoaded(name, d, SQLStorage.this);
-//					}
-						}
-					}
-				} catch (final SQLException e) {
-					return e;
+		final VariablesLoader loader = new VariablesLoader(this, (name, type) ->
+				Skript.error("Cannot load the variable {" + name + "} from the database '" + databaseName + "', because it cannot be loaded as " + type.getName().withIndefiniteArticle()));
+		try {
+			while (r.next()) {
+				int i = 1;
+				final String name = r.getString(i++);
+				if (name == null) {
+					Skript.error("Variable with NULL name found in the database '" + databaseName + "', ignoring it");
+					continue;
 				}
-				return null;
+				final String type = r.getString(i++);
+				final byte[] value = r.getBytes(i++); // Blob not supported by SQLite
+				lastRowID = r.getLong(i++);
+				if (value == null) {
+					// Deleted variables don't need to be loaded
+					continue;
+				}
+				final ClassInfo<?> c = Classes.getClassInfoNoError(type);
+				if (c == null || c.getSerializer() == null) {
+					Skript.error("Cannot load the variable {" + name + "} from the database '" + databaseName + "', because the type '" + type + "' cannot be recognised or cannot be stored in variables");
+					continue;
+				}
+				loader.load(name, c, value);
 			}
-		});
-		if (e != null)
-			throw e;
-
-//			if (!syncDeserializing.isEmpty()) {
-//				Task.callSync(new Callable<Void>() {
-//					@Override
-//					@Nullable
-//					public Void call() throws Exception {
-//						synchronized (syncDeserializing) {
-//							for (final VariableInfo o : syncDeserializing) {
-//								final Object d = Classes.deserialize(o.ci, o.value);
-//								if (d == null) {
-//									Skript.error("Cannot load the variable {" + o.name + "} from the database " + databaseName + ", because it cannot be loaded as a " + o.ci.getName());
-//									continue;
-//								}
-//								Variables.variableLoaded(o.name, d, DatabaseStorage.this);
-//							}
-//							syncDeserializing.clear();
-//							return null;
-//						}
-//					}
-//				});
-//			}
-//		}
+		} finally {
+			loader.finish();
+		}
 	}
 
 //	private final static class OldVariableInfo {
@@ -25,6 +25,8 @@ import java.util.Map;
 
 import org.eclipse.jdt.annotation.Nullable;
 
+import ch.njol.skript.lang.parser.ParserInstance;
+
 /**
  * This is used to manage local variable type hints.
  * 
@@ -37,10 +39,27 @@ import org.eclipse.jdt.annotation.Nullable;
  */
 public class TypeHints {
 	
-	private static final Deque<Map<String, Class<?>>> typeHints = new ArrayDeque<>();
+	/**
+	 * Holds the type hints of the {@link ParserInstance} of each thread,
+	 * so scripts can be parsed in parallel.
+	 */
+	public static class TypeHintsData extends ParserInstance.Data {
+		
+		private final Deque<Map<String, Class<?>>> typeHints = new ArrayDeque<>();
+		
+		public TypeHintsData(ParserInstance parserInstance) {
+			super(parserInstance);
+			typeHints.push(new HashMap<>());
+		}
+		
+	}
 	
 	static {
-		clear(); // Initialize type hints
+		ParserInstance.registerData(TypeHintsData.class, TypeHintsData::new);
+	}
+	
+	private static Deque<Map<String, Class<?>>> getTypeHints() {
+		return ParserInstance.get().getData(TypeHintsData.class).typeHints;
 	}
 	
 	public static void add(String variable, Class<?> hint) {
@@ -48,14 +67,14 @@ public class TypeHints {
 			return;
 		
 		// Take top of stack, without removing it
-		Map<String, Class<?>> hints = typeHints.getFirst();
+		Map<String, Class<?>> hints = getTypeHints().getFirst();
 		hints.put(variable, hint);
 	}
 	
 	@Nullable
 	public static Class<?> get(String variable) {
 		// Go through stack of hints for different scopes
-		for (Map<String, Class<?>> hints : typeHints) {
+		for (Map<String, Class<?>> hints : getTypeHints()) {
 			Class<?> hint = hints.get(variable);
 			if (hint != null) // Found in this scope
 				return hint;
@@ -65,15 +84,16 @@ public class TypeHints {
 	}
 	
 	public static void enterScope() {
-		typeHints.push(new HashMap<>());
+		getTypeHints().push(new HashMap<>());
 	}
 	
 	public static void exitScope() {
-		typeHints.pop();
+		getTypeHints().pop();
 	}
 	
 	public static void clear() {
+		Deque<Map<String, Class<?>>> typeHints = getTypeHints();
 		typeHints.clear();
 		typeHints.push(new HashMap<>());
 	}
-}
\ No newline at end of file
+}
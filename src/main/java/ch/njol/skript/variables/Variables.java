@@ -32,6 +32,7 @@ import ch.njol.skript.registrations.Classes;
 import ch.njol.skript.variables.SerializedVariable.Value;
 import ch.njol.util.Kleenean;
 import ch.njol.util.NonNullPair;
+import ch.njol.util.Pair;
 import ch.njol.util.SynchronizedReference;
 import ch.njol.yggdrasil.Yggdrasil;
 import org.bukkit.Bukkit;
@@ -48,23 +49,17 @@ import com.google.common.collect.Multimap;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Handles all things related to variables.
@@ -100,6 +95,7 @@ public class Variables {
 	// Register some things with Yggdrasil
 	static {
 		registerStorage(FlatFileStorage.class, "csv", "file", "flatfile");
+		registerStorage(BinaryFileStorage.class, "binary");
 		registerStorage(SQLiteStorage.class, "sqlite");
 		registerStorage(MySQLStorage.class, "mysql");
 		yggdrasil.registerSingleClass(Kleenean.class, "Kleenean");
@@ -140,6 +136,24 @@ public class Variables {
 	 */
 	static final List<VariablesStorage> STORAGES = new ArrayList<>();
 
+	/**
+	 * Finds the storage of each variable among the {@link #STORAGES},
+	 * replaced whenever a storage is added.
+	 */
+	private static volatile VariablesStorageRouter storageRouter = new VariablesStorageRouter(STORAGES);
+
+	/**
+	 * Gets the storage the given variable belongs to,
+	 * i.e. the first of the {@link #STORAGES} that {@link VariablesStorage#accept(String) accepts} it.
+	 *
+	 * @param name the name of the variable.
+	 * @return the storage of the variable, or {@code null} if no storage accepts it.
+	 */
+	@Nullable
+	static VariablesStorage getStorage(String name) {
+		return storageRouter.getStorage(name);
+	}
+
 	/**
 	 * Register a VariableStorage class for Skript to create if the user config value matches.
 	 * 
@@ -168,8 +182,7 @@ public class Variables {
 	 * @return whether the loading was successful.
 	 */
 	public static boolean load() {
-		assert variables.treeMap.isEmpty();
-		assert variables.hashMap.isEmpty();
+		assert numVariables() == 0;
 		assert STORAGES.isEmpty();
 
 		Config config = SkriptConfig.getConfig();
@@ -258,10 +271,12 @@ public class Variables {
 						Skript.info("Loading database '" + node.getKey() + "'...");
 
 					// Load the variables
-					if (variablesStorage.load(sectionNode))
+					if (variablesStorage.load(sectionNode)) {
 						STORAGES.add(variablesStorage);
-					else
+						storageRouter = new VariablesStorageRouter(STORAGES);
+					} else {
 						successful = false;
+					}
 
 					// Get the amount of variables loaded by this variables storage object
 					int newVariablesLoaded;
@@ -307,32 +322,53 @@ public class Variables {
 		return true;
 	}
 
-	/**
-	 * A pattern to split variable names using {@link Variable#SEPARATOR}.
-	 */
-	private static final Pattern VARIABLE_NAME_SPLIT_PATTERN = Pattern.compile(Pattern.quote(Variable.SEPARATOR));
-
 	/**
 	 * Splits the given variable name into its parts,
 	 * separated by {@link Variable#SEPARATOR}.
+	 * <p>
+	 * The result is the same as splitting the name with a regular expression matching the separator,
+	 * i.e. trailing empty parts are removed.
 	 *
 	 * @param name the variable name.
 	 * @return the parts.
 	 */
 	public static String[] splitVariableName(String name) {
-		return VARIABLE_NAME_SPLIT_PATTERN.split(name);
+		int index = name.indexOf(Variable.SEPARATOR);
+		if (index == -1)
+			return new String[] {name};
+
+		List<String> parts = new ArrayList<>();
+		int start = 0;
+		while (index != -1) {
+			parts.add(name.substring(start, index));
+			start = index + Variable.SEPARATOR.length();
+			index = name.indexOf(Variable.SEPARATOR, start);
+		}
+		parts.add(name.substring(start));
+
+		// Remove trailing empty parts
+		int size = parts.size();
+		while (size > 0 && parts.get(size - 1).isEmpty())
+			size--;
+		return parts.subList(0, size).toArray(new String[0]);
 	}
 
 	/**
-	 * A lock for reading and writing variables.
+	 * The amount of {@link VariablesStripe stripes} global variables are split into.
+	 * Must be a power of two.
 	 */
-	static final ReadWriteLock variablesLock = new ReentrantReadWriteLock(true);
+	private static final int STRIPE_COUNT = 16;
 
 	/**
-	 * The {@link VariablesMap} storing global variables,
-	 * must be locked with {@link #variablesLock}.
+	 * The stripes storing global variables,
+	 * indexed by the hash of the top-level segment of the variable name.
 	 */
-	static final VariablesMap variables = new VariablesMap();
+	private static final VariablesStripe[] variableStripes = new VariablesStripe[STRIPE_COUNT];
+
+	static {
+		for (int i = 0; i < STRIPE_COUNT; i++)
+			variableStripes[i] = new VariablesStripe();
+	}
 
 	/**
 	 * A map storing all local variables,
@@ -341,33 +377,36 @@ public class Variables {
 	private static final Map<Event, VariablesMap> localVariables = new ConcurrentHashMap<>();
 
 	/**
-	 * Gets the {@link TreeMap} of all global variables.
+	 * Gets the stripe the given global variable belongs to.
 	 * <p>
-	 * Remember to lock with {@link #getReadLock()} and to not make any changes!
+	 * The stripe only depends on the part of the name before the first {@link Variable#SEPARATOR},
+	 * so all elements of a list variable belong to the same stripe.
+	 *
+	 * @param name the variable name, possibly a list variable.
+	 * @return the stripe of the variable.
 	 */
-	static TreeMap<String, Object> getVariables() {
-		return variables.treeMap;
+	static VariablesStripe getVariableStripe(String name) {
+		int hash = 0;
+		int length = name.length();
+		for (int i = 0; i < length; i++) {
+			char c = name.charAt(i);
+			if (c == ':' && i + 1 < length && name.charAt(i + 1) == ':')
+				break;
+			hash = 31 * hash + c;
+		}
+		hash ^= hash >>> 16;
+		return variableStripes[hash & (STRIPE_COUNT - 1)];
 	}
 
 	/**
-	 * Gets the {@link Map} of all global variables.
+	 * Gets all stripes global variables are stored in.
 	 * <p>
-	 * This map cannot be modified.
-	 * Remember to lock with {@link #getReadLock()}!
-	 */
-	static Map<String, Object> getVariablesHashMap() {
-		return Collections.unmodifiableMap(variables.hashMap);
-	}
-
-	/**
-	 * Gets the lock for reading variables.
-	 *
-	 * @return the lock.
+	 * Remember to lock each stripe with its {@link VariablesStripe#lock} and to not make any changes!
 	 *
-	 * @see #variablesLock
+	 * @return the stripes, which must not be modified.
 	 */
-	static Lock getReadLock() {
-		return variablesLock.readLock();
+	static VariablesStripe[] getVariableStripes() {
+		return variableStripes;
 	}
 
 	/**
@@ -405,6 +444,9 @@ public class Variables {
 	/**
 	 * Creates a copy of the {@link VariablesMap} for local variables
 	 * in an event.
+	 * <p>
+	 * This takes constant time, the variables themselves are only copied
+	 * once either the original or the copy is modified.
 	 *
 	 * @param event the event to copy local variables from.
 	 * @return the copy.
@@ -450,27 +492,43 @@ public class Variables {
 
 			return map.getVariable(n);
 		} else {
-			// Prevent race conditions from returning variables with incorrect values
-			if (!changeQueue.isEmpty()) {
-				// Gets the last VariableChange made
-				VariableChange variableChange = changeQueue.stream()
-						.filter(change -> change.name.equals(n))
-						.reduce((first, second) -> second)
-								// Gets last value, as iteration is from head to tail,
-								//  and adding occurs at the tail (and we want the most recently added)
-						.orElse(null);
-
-				if (variableChange != null) {
-					return variableChange.value;
-				}
-			}
+			return getVariableStripe(n).getVariable(n);
+		}
+	}
 
-			try {
-				variablesLock.readLock().lock();
-				return variables.getVariable(n);
-			} finally {
-				variablesLock.readLock().unlock();
-			}
+	/**
+	 * Creates a snapshot of the elements of the requested list variable,
+	 * i.e. the indices and values of its direct children, sorted by index.
+	 * Elements that only have children of their own but no value are skipped.
+	 * <p>
+	 * Unlike iterating over the map returned by {@link #getVariable(String, Event, boolean)},
+	 * this is safe even if the list variable is modified during iteration or by another thread.
+	 * <b>Do not modify the returned values!</b>
+	 *
+	 * @param name the list variable's name, ending with {@code ::*}.
+	 * @param event if {@code local} is {@code true}, this is the event
+	 *                 the local variable resides in.
+	 * @param local if this variable is a local or global variable.
+	 * @return the index-value pairs of the list variable, or {@code null} if the list variable is not set.
+	 */
+	@Nullable
+	public static List<Pair<String, Object>> getListElements(String name, @Nullable Event event, boolean local) {
+		assert name.endsWith(Variable.SEPARATOR + "*") : name;
+		String n;
+		if (caseInsensitiveVariables) {
+			n = name.toLowerCase(Locale.ENGLISH);
+		} else {
+			n = name;
+		}
+
+		if (local) {
+			VariablesMap map = localVariables.get(event);
+			if (map == null)
+				return null;
+
+			return map.getListElements(n);
+		} else {
+			return getVariableStripe(n).getListElements(n);
 		}
 	}
 
@@ -503,17 +561,9 @@ public class Variables {
 			name = name.toLowerCase(Locale.ENGLISH);
 		}
 
-		// Check if conversion is needed due to ClassInfo#getSerializeAs
 		if (value != null) {
 			assert !name.endsWith("::*");
-
-			ClassInfo<?> ci = Classes.getSuperClassInfo(value.getClass());
-			Class<?> sas = ci.getSerializeAs();
-
-			if (sas != null) {
-				value = Converters.convert(value, sas);
-				assert value != null : ci + ", " + sas;
-			}
+			value = convertForStorage(value);
 		}
 
 		if (local) {
@@ -528,91 +578,80 @@ public class Variables {
 	}
 
 	/**
-	 * Sets the given global variable name to the given value.
+	 * Converts the given value if needed due to {@link ClassInfo#getSerializeAs()}.
 	 *
-	 * @param name the variable name.
-	 * @param value the value, or {@code null} to delete the variable.
+	 * @param value the value to store in a variable.
+	 * @return the value that should be stored.
 	 */
-	static void setVariable(String name, @Nullable Object value) {
-		boolean gotLock = variablesLock.writeLock().tryLock();
-		if (gotLock) {
-			try {
-				// Set the variable
-				variables.setVariable(name, value);
-				// ..., save the variable change
-				saveVariableChange(name, value);
-				// ..., and process all previously queued changes
-				processChangeQueue();
-			} finally {
-				variablesLock.writeLock().unlock();
-			}
-		} else {
-			// Couldn't acquire variable write lock, queue the change (blocking here is a bad idea)
-			queueVariableChange(name, value);
+	private static Object convertForStorage(Object value) {
+		ClassInfo<?> ci = Classes.getSuperClassInfo(value.getClass());
+		Class<?> sas = ci.getSerializeAs();
+
+		if (sas != null) {
+			value = Converters.convert(value, sas);
+			assert value != null : ci + ", " + sas;
 		}
+		return value;
 	}
 
 	/**
-	 * Changes to variables that have not yet been performed.
+	 * Creates the local variables of the given event if they don't exist yet,
+	 * storing the variables with a slot in the given slots in an array.
+	 *
+	 * @param event the event.
+	 * @param slots the slots of the local variables that will be used with this event,
+	 *              usually {@link ch.njol.skript.lang.Trigger#getLocalVariableSlots()}.
 	 */
-	static final Queue<VariableChange> changeQueue = new ConcurrentLinkedQueue<>();
+	public static void initLocalVariables(Event event, LocalVariableSlots slots) {
+		localVariables.computeIfAbsent(event, e -> new VariablesMap(slots));
+	}
 
 	/**
-	 * A variable change name-value pair.
+	 * Returns the internal value of the local variable in the given slot.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 *
+	 * @param slots the slots the variable was assigned in.
+	 * @param slot the slot of the variable.
+	 * @param event the event the local variable resides in.
+	 * @return the value of the variable, or {@code null} if the variable is not set.
+	 *
+	 * @see #getVariable(String, Event, boolean)
 	 */
-	private static class VariableChange {
-
-		/**
-		 * The name of the changed variable.
-		 */
-		public final String name;
-
-		/**
-		 * The (possibly {@code null}) value of the variable change.
-		 */
-		@Nullable
-		public final Object value;
-
-		/**
-		 * Creates a new {@link VariableChange} with the given name and value.
-		 *
-		 * @param name the variable name.
-		 * @param value the new variable value.
-		 */
-		public VariableChange(String name, @Nullable Object value) {
-			this.name = name;
-			this.value = value;
-		}
-
+	@Nullable
+	public static Object getLocalVariable(LocalVariableSlots slots, int slot, Event event) {
+		VariablesMap map = localVariables.get(event);
+		if (map == null)
+			return null;
+		return map.getVariable(slots, slot);
 	}
 
 	/**
-	 * Queues a variable change. Only to be called when direct write is not
-	 * possible, but thread cannot be allowed to block.
+	 * Sets the local variable in the given slot.
 	 *
-	 * @param name the variable name.
-	 * @param value the new value.
+	 * @param slots the slots the variable was assigned in.
+	 * @param slot the slot of the variable.
+	 * @param value the variable's value, or {@code null} to delete the variable.
+	 * @param event the event the local variable resides in.
+	 *
+	 * @see #setVariable(String, Object, Event, boolean)
 	 */
-	private static void queueVariableChange(String name, @Nullable Object value) {
-		changeQueue.add(new VariableChange(name, value));
+	public static void setLocalVariable(LocalVariableSlots slots, int slot, @Nullable Object value, Event event) {
+		if (value != null)
+			value = convertForStorage(value);
+
+		VariablesMap map = localVariables.computeIfAbsent(event, e -> new VariablesMap(slots));
+		map.setVariable(slots, slot, value);
 	}
 
 	/**
-	 * Processes all entries in variable change queue.
-	 * <p>
-	 * Note that caller must acquire write lock before calling this,
-	 * then release it.
+	 * Sets the given global variable name to the given value.
+	 *
+	 * @param name the variable name.
+	 * @param value the value, or {@code null} to delete the variable.
 	 */
-	static void processChangeQueue() {
-		while (true) { // Run as long as we still have changes
-			VariableChange change = changeQueue.poll();
-			if (change == null)
-				break;
-
-			// Set and save variable
-			variables.setVariable(change.name, change.value);
-			saveVariableChange(change.name, change.value);
-		}
+	static void setVariable(String name, @Nullable Object value) {
+		getVariableStripe(name).setVariable(name, value);
 	}
 
 	/**
@@ -663,68 +702,36 @@ public class Variables {
 		synchronized (TEMP_VARIABLES) {
 			Map<String, NonNullPair<Object, VariablesStorage>> tvs = TEMP_VARIABLES.get();
 			if (tvs != null) {
-				NonNullPair<Object, VariablesStorage> existingVariable = tvs.get(name);
-
-				// Check for conflicts with other storages
-				conflict: if (existingVariable != null) {
-					VariablesStorage existingVariableStorage = existingVariable.getSecond();
-
-					if (existingVariableStorage == source) {
-						// No conflict if from the same storage
-						break conflict;
-					}
-
-					// Variable already loaded from another database, conflict
-					loadConflicts++;
-
-					// Warn if needed
-					if (loadConflicts <= MAX_CONFLICT_WARNINGS) {
-						Skript.warning("The variable {" + name + "} was loaded twice from different databases (" +
-							existingVariableStorage.databaseName + " and " + source.databaseName +
-							"), only the one from " + source.databaseName + " will be kept.");
-					} else if (loadConflicts == MAX_CONFLICT_WARNINGS + 1) {
-						Skript.warning("[!] More than " + MAX_CONFLICT_WARNINGS +
-							" variables were loaded more than once from different databases, " +
-							"no more warnings will be printed.");
-					}
-
-					// Remove the value from the existing variable's storage
-					existingVariableStorage.save(name, null, null);
-				}
-
-				// Add to the loaded variables
-				tvs.put(name, new NonNullPair<>(value, source));
-
+				addTemporaryVariable(tvs, name, value, source);
 				return false;
 			}
 		}
 
-		variablesLock.writeLock().lock();
+		VariablesStripe stripe = getVariableStripe(name);
+		stripe.lock.writeLock().lock();
 		try {
-			variables.setVariable(name, value);
+			stripe.variables.setVariable(name, value);
 		} finally {
-			variablesLock.writeLock().unlock();
+			stripe.lock.writeLock().unlock();
 		}
 
 		// Move the variable to the right storage
 		try {
-			for (VariablesStorage variablesStorage : STORAGES) {
-				if (variablesStorage.accept(name)) {
-					if (variablesStorage != source) {
-						// Serialize and set value in new storage
-						Value serializedValue = serialize(value);
-						if (serializedValue == null) {
-							variablesStorage.save(name, null, null);
-						} else {
-							variablesStorage.save(name, serializedValue.type, serializedValue.data);
-						}
-
-						// Remove from old storage
-						if (value != null)
-							source.save(name, null, null);
+			VariablesStorage variablesStorage = getStorage(name);
+			if (variablesStorage != null) {
+				if (variablesStorage != source) {
+					// Serialize and set value in new storage
+					Value serializedValue = LazyValue.serialize(value);
+					if (serializedValue == null) {
+						variablesStorage.save(name, null, null);
+					} else {
+						variablesStorage.save(name, serializedValue.type, serializedValue.data);
 					}
-					return true;
+
+					// Remove from old storage
+					source.save(name, null, null);
 				}
+				return true;
 			}
 		} catch (Exception e) {
 			//noinspection ThrowableNotThrown
@@ -734,6 +741,70 @@ public class Variables {
 		return false;
 	}
 
+	/**
+	 * Handles the given loaded variables like {@link #variableLoaded(String, Object, VariablesStorage)},
+	 * but only locks the loaded variables once if the storages are still loading.
+	 * <p>
+	 * Must be called on Bukkit's main thread.
+	 *
+	 * @param variables the names and values of the loaded variables, in the order they were loaded.
+	 * @param source the storage the variables came from.
+	 */
+	static void variablesLoaded(List<NonNullPair<String, Object>> variables, VariablesStorage source) {
+		assert Bukkit.isPrimaryThread(); // required by serialisation
+
+		synchronized (TEMP_VARIABLES) {
+			Map<String, NonNullPair<Object, VariablesStorage>> tvs = TEMP_VARIABLES.get();
+			if (tvs != null) {
+				for (NonNullPair<String, Object> variable : variables)
+					addTemporaryVariable(tvs, variable.getFirst(), variable.getSecond(), source);
+				return;
+			}
+		}
+
+		for (NonNullPair<String, Object> variable : variables)
+			variableLoaded(variable.getFirst(), variable.getSecond(), source);
+	}
+
+	/**
+	 * Adds the given variable to the variables loaded while storages are loading,
+	 * removing it from the storage it was loaded from before if that's another storage.
+	 * <p>
+	 * Must be called while holding the lock on {@link #TEMP_VARIABLES}.
+	 */
+	private static void addTemporaryVariable(Map<String, NonNullPair<Object, VariablesStorage>> tvs,
+											 String name, Object value, VariablesStorage source) {
+		NonNullPair<Object, VariablesStorage> existingVariable = tvs.get(name);
+
+		// Check for conflicts with other storages
+		if (existingVariable != null) {
+			VariablesStorage existingVariableStorage = existingVariable.getSecond();
+
+			// No conflict if from the same storage
+			if (existingVariableStorage != source) {
+				// Variable already loaded from another database, conflict
+				loadConflicts++;
+
+				// Warn if needed
+				if (loadConflicts <= MAX_CONFLICT_WARNINGS) {
+					Skript.warning("The variable {" + name + "} was loaded twice from different databases (" +
+						existingVariableStorage.databaseName + " and " + source.databaseName +
+						"), only the one from " + source.databaseName + " will be kept.");
+				} else if (loadConflicts == MAX_CONFLICT_WARNINGS + 1) {
+					Skript.warning("[!] More than " + MAX_CONFLICT_WARNINGS +
+						" variables were loaded more than once from different databases, " +
+						"no more warnings will be printed.");
+				}
+
+				// Remove the value from the existing variable's storage
+				existingVariableStorage.save(name, null, null);
+			}
+		}
+
+		// Add to the loaded variables
+		tvs.put(name, new NonNullPair<>(value, source));
+	}
+
 	/**
 	 * Stores loaded variables into the variables map
 	 * and the appropriate databases.
@@ -753,7 +824,8 @@ public class Variables {
 			TEMP_VARIABLES.set(null);
 			assert tvs != null;
 
-			variablesLock.writeLock().lock();
+			for (VariablesStripe stripe : variableStripes)
+				stripe.lock.writeLock().lock();
 			try {
 				// Calculate the amount of variables that don't have a storage
 				int unstoredVariables = 0;
@@ -765,11 +837,12 @@ public class Variables {
 				for (VariablesStorage variablesStorage : STORAGES)
 					variablesStorage.allLoaded();
 
-				Skript.debug("Variables set. Queue size = " + saveQueue.size());
+				Skript.debug("Variables set. Queue size = " + getSaveQueueSize());
 
 				return unstoredVariables;
 			} finally {
-				variablesLock.writeLock().unlock();
+				for (VariablesStripe stripe : variableStripes)
+					stripe.lock.writeLock().unlock();
 			}
 		}
 	}
@@ -813,71 +886,246 @@ public class Variables {
 	}
 
 	/**
-	 * Serializes and adds the variable change to the {@link #saveQueue}.
+	 * Adds the variable change to the {@link #saveQueue}, replacing any unsaved change of the same variable.
+	 * <p>
+	 * If the value's class {@link ClassInfo#canSerializeAsync() can be serialized asynchronously},
+	 * only a copy of the value is queued, and it is serialized on the {@link #saveThread}.
+	 * Otherwise, the value is serialized right away.
 	 *
 	 * @param name the variable name.
 	 * @param value the value of the variable.
 	 */
-	private static void saveVariableChange(String name, @Nullable Object value) {
-		saveQueue.add(serialize(name, value));
+	static void saveVariableChange(String name, @Nullable Object value) {
+		if (value != null) {
+			ClassInfo<?> classInfo = Classes.getSuperClassInfo(value.getClass());
+			if (classInfo.canSerializeAsync() && classInfo.getSerializeAs() == null) {
+				queueSave(name, new VariableSave(name, classInfo, cloneForSave(classInfo, value)));
+				return;
+			}
+		}
+		queueSave(name, new VariableSave(serialize(name, value)));
+	}
+
+	/**
+	 * Queues the given save of the given variable, or replaces the variable's
+	 * pending save if it hasn't been written yet.
+	 */
+	private static void queueSave(String name, VariableSave save) {
+		queuedSaves.incrementAndGet();
+		if (pendingSaves.put(name, save) == null) {
+			saveQueue.add(name);
+		} else {
+			// The previous change of this variable will never be written
+			coalescedSaves.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Copies the given value using the given class info's {@link ClassInfo#clone(Object) cloner},
+	 * so that later changes to the variable's value don't affect the queued save.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> Object cloneForSave(ClassInfo<T> classInfo, Object value) {
+		return classInfo.clone((T) value);
+	}
+
+	/**
+	 * A variable change that is waiting to be written to the storage.
+	 * It either holds an already serialized variable, or the name and a copy of the value
+	 * to be serialized on the {@link #saveThread}.
+	 */
+	static final class VariableSave {
+
+		/**
+		 * The already serialized variable, or {@code null} if it is yet to be serialized.
+		 */
+		@Nullable
+		private final SerializedVariable serialized;
+
+		@Nullable
+		private final String name;
+		@Nullable
+		private final ClassInfo<?> classInfo;
+		@Nullable
+		private final Object value;
+
+		VariableSave(SerializedVariable serialized) {
+			this.serialized = serialized;
+			this.name = null;
+			this.classInfo = null;
+			this.value = null;
+		}
+
+		VariableSave(String name, ClassInfo<?> classInfo, Object value) {
+			this.serialized = null;
+			this.name = name;
+			this.classInfo = classInfo;
+			this.value = value;
+		}
+
+		/**
+		 * Serializes the variable if that hasn't happened yet.
+		 * May be called from any thread.
+		 *
+		 * @return the serialized variable.
+		 */
+		SerializedVariable serialize() {
+			if (serialized != null)
+				return serialized;
+
+			assert name != null && classInfo != null && value != null;
+			SerializedVariable.Value serializedValue;
+			try {
+				serializedValue = Classes.serialize(classInfo, value);
+			} catch (Exception e) {
+				throw Skript.exception(e, "Error saving variable named " + name);
+			}
+			return new SerializedVariable(name, serializedValue);
+		}
+
 	}
 
 	/**
-	 * The queue of serialized variables that have not yet been written
-	 * to the storage.
+	 * The maximum amount of variable changes the {@link #saveThread} hands to the storages at once.
 	 */
-	static final BlockingQueue<SerializedVariable> saveQueue = new LinkedBlockingQueue<>();
+	private static final int SAVE_BATCH_SIZE = 1000;
 
 	/**
-	 * Whether the {@link #saveThread} should be stopped.
+	 * How long the {@link #saveThread} waits for more changes before saving a batch of changes,
+	 * in milliseconds. Changes of the same variable within this window are only saved once.
+	 */
+	private static final long SAVE_FLUSH_WINDOW = 500;
+
+	/**
+	 * The queue of the names of variables that have not yet been written
+	 * to the storage. Their changes are kept in {@link #pendingSaves}.
+	 */
+	static final BlockingQueue<String> saveQueue = new LinkedBlockingQueue<>();
+
+	/**
+	 * The latest unsaved change of each variable in the {@link #saveQueue}.
+	 */
+	private static final Map<String, VariableSave> pendingSaves = new ConcurrentHashMap<>();
+
+	/**
+	 * The amount of variable changes that have been queued to be saved.
+	 */
+	private static final AtomicLong queuedSaves = new AtomicLong();
+
+	/**
+	 * The amount of queued variable changes that were replaced by a later change
+	 * of the same variable before being saved.
+	 */
+	private static final AtomicLong coalescedSaves = new AtomicLong();
+
+	/**
+	 * Whether the {@link #saveThread} should stop once it has saved all queued changes.
 	 */
 	private static volatile boolean closed = false;
 
+	/**
+	 * How long the {@link #saveThread} waits for a change before checking whether it's {@link #closed}, in milliseconds.
+	 * The thread isn't interrupted, as that would also interrupt a storage writing a batch.
+	 */
+	private static final long SAVE_POLL_TIMEOUT = 100;
+
 	/**
 	 * The thread that saves variables, i.e. stores in the appropriate storage.
 	 */
 	private static final Thread saveThread = Skript.newThread(() -> {
-		while (!closed) {
+		List<String> batch = new ArrayList<>(SAVE_BATCH_SIZE);
+		while (!closed || !saveQueue.isEmpty()) {
 			try {
-				// Save one variable change
-				SerializedVariable variable = saveQueue.take();
+				String first = saveQueue.poll(SAVE_POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+				if (first == null)
+					continue;
+				batch.add(first);
 
-				for (VariablesStorage variablesStorage : STORAGES) {
-					if (variablesStorage.accept(variable.name)) {
-						variablesStorage.save(variable);
+				// Unless there's a backlog, give the variables some time to change again, so only the latest change is saved
+				if (!closed && saveQueue.size() < SAVE_BATCH_SIZE) {
+					try {
+						Thread.sleep(SAVE_FLUSH_WINDOW);
+					} catch (InterruptedException ignored) {}
+				}
+				saveQueue.drainTo(batch, SAVE_BATCH_SIZE - 1);
 
-						break;
+				for (String name : batch) {
+					VariableSave save = pendingSaves.remove(name);
+					if (save == null)
+						continue;
+
+					// Serialize the variable change if that hasn't been done yet
+					SerializedVariable variable;
+					try {
+						variable = save.serialize();
+					} catch (RuntimeException e) {
+						// Already reported by Skript.exception, don't let it kill the save thread
+						continue;
 					}
+
+					VariablesStorage variablesStorage = getStorage(variable.name);
+					if (variablesStorage != null)
+						variablesStorage.save(variable);
 				}
-			} catch (InterruptedException ignored) {}
+			} catch (InterruptedException ignored) {
+			} finally {
+				batch.clear();
+			}
 		}
 	}, "Skript variable save thread");
 
 	/**
 	 * Closes the variable systems:
 	 * <ul>
-	 *     <li>Process all changes left in the {@link #changeQueue}.</li>
-	 *     <li>Stops the {@link #saveThread}.</li>
+	 *     <li>Process all changes left in the change queues of the {@link VariablesStripe stripes}.</li>
+	 *     <li>Stops the {@link #saveThread} once it has written all queued changes,
+	 *     including the batch it's currently writing, and waits for it.</li>
 	 * </ul>
 	 */
 	public static void close() {
-		try { // Ensure that all changes are to save soon
-			variablesLock.writeLock().lock();
-			processChangeQueue();
-		} finally {
-			variablesLock.writeLock().unlock();
+		// Ensure that all changes are to save soon
+		for (VariablesStripe stripe : variableStripes) {
+			stripe.lock.writeLock().lock();
+			try {
+				stripe.processChangeQueue();
+			} finally {
+				stripe.lock.writeLock().unlock();
+			}
 		}
 
-		// First, make sure all variables are saved
-		while (saveQueue.size() > 0) {
+		// The save thread removes changes from pendingSaves before writing them,
+		// so it's only done once it has stopped
+		closed = true;
+		boolean interrupted = false;
+		while (saveThread.isAlive()) {
 			try {
-				Thread.sleep(10);
-			} catch (InterruptedException ignored) {}
+				saveThread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
 		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
 
-		// Then we can safely interrupt and stop the thread
-		closed = true;
-		saveThread.interrupt();
+	/**
+	 * Gets the amount of variables with changes that are yet to be saved.
+	 *
+	 * @return the amount of variables in the save queue.
+	 */
+	public static int getSaveQueueSize() {
+		return pendingSaves.size();
+	}
+
+	/**
+	 * Gets the ratio of variable changes that didn't need to be saved, because the
+	 * variable was changed again before the previous change was written.
+	 *
+	 * @return the coalescing ratio, between 0 and 1.
+	 */
+	public static double getSaveCoalescingRatio() {
+		long queued = queuedSaves.get();
+		return queued == 0 ? 0 : (double) coalescedSaves.get() / queued;
 	}
 
 	/**
@@ -886,12 +1134,16 @@ public class Variables {
 	 * @return the amount of variables.
 	 */
 	public static int numVariables() {
-		try {
-			variablesLock.readLock().lock();
-			return variables.hashMap.size();
-		} finally {
-			variablesLock.readLock().unlock();
+		int count = 0;
+		for (VariablesStripe stripe : variableStripes) {
+			stripe.lock.readLock().lock();
+			try {
+				count += stripe.variables.hashMap.size();
+			} finally {
+				stripe.lock.readLock().unlock();
+			}
 		}
+		return count;
 	}
 
 }
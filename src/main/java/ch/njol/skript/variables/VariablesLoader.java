@@ -0,0 +1,232 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.classes.ClassInfo;
+import ch.njol.skript.classes.Serializer;
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.Task;
+import ch.njol.util.NonNullPair;
+import org.bukkit.Bukkit;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+/**
+ * Deserializes the variables read by a {@link VariablesStorage} in parallel,
+ * and passes them on to {@link Variables#variablesLoaded(List, VariablesStorage)}
+ * in batches, in the order they were read.
+ * <p>
+ * Values whose {@link Serializer#mustSyncDeserialization() serializer requires it}
+ * are deserialized on Bukkit's main thread while the batch they're in is passed on.
+ * The batches are always passed on on Bukkit's main thread.
+ */
+final class VariablesLoader {
+
+	/**
+	 * The amount of variables deserialized together.
+	 */
+	private static final int BATCH_SIZE = 1000;
+
+	/**
+	 * The maximum amount of batches being deserialized at once,
+	 * so the reading storage doesn't get too far ahead.
+	 */
+	private static final int MAX_PENDING_BATCHES = 2 * Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * A variable read by a storage.
+	 */
+	private static final class LoadedVariable {
+
+		final String name;
+
+		@Nullable
+		final ClassInfo<?> type;
+
+		@Nullable
+		final byte[] data;
+
+		/**
+		 * The deserialized value, or {@code null} if it hasn't been deserialized yet
+		 * or couldn't be deserialized.
+		 */
+		@Nullable
+		Object value;
+
+		LoadedVariable(String name, ClassInfo<?> type, byte[] data) {
+			this.name = name;
+			this.type = type;
+			this.data = data;
+		}
+
+		LoadedVariable(String name, Object value) {
+			this.name = name;
+			this.type = null;
+			this.data = null;
+			this.value = value;
+		}
+
+		/**
+		 * @return whether this value must be deserialized on Bukkit's main thread.
+		 */
+		boolean mustSyncDeserialization() {
+			Serializer<?> serializer = type == null ? null : type.getSerializer();
+			return serializer != null && serializer.mustSyncDeserialization();
+		}
+
+		void deserialize() {
+			if (type != null && data != null)
+				value = Classes.deserialize(type, data);
+		}
+
+	}
+
+	private final VariablesStorage storage;
+
+	/**
+	 * Called for each variable whose value couldn't be deserialized.
+	 */
+	private final BiConsumer<String, ClassInfo<?>> invalidVariableHandler;
+
+	/**
+	 * The batches being deserialized, in the order they were read.
+	 */
+	private final Deque<ForkJoinTask<List<LoadedVariable>>> pendingBatches = new ArrayDeque<>();
+
+	private List<LoadedVariable> batch = new ArrayList<>(BATCH_SIZE);
+
+	/**
+	 * @param storage the storage that reads the variables.
+	 * @param invalidVariableHandler called on Bukkit's main thread for each variable whose value couldn't be deserialized,
+	 *                               with the variable's name and type.
+	 */
+	VariablesLoader(VariablesStorage storage, BiConsumer<String, ClassInfo<?>> invalidVariableHandler) {
+		this.storage = storage;
+		this.invalidVariableHandler = invalidVariableHandler;
+	}
+
+	/**
+	 * Adds a serialized variable read by the storage.
+	 *
+	 * @param name the name of the variable.
+	 * @param type the type of the variable's value, which must have a {@link ClassInfo#getSerializer() serializer}.
+	 * @param data the serialized value.
+	 */
+	void load(String name, ClassInfo<?> type, byte[] data) {
+		Serializer<?> serializer = type.getSerializer();
+		assert serializer != null : type;
+		if (storage.lazyLoading && name.contains(Variable.SEPARATOR) && !serializer.mustSyncDeserialization()) {
+			// Only list elements are loaded lazily, as they're usually the bulk of the variables
+			add(new LoadedVariable(name, new LazyValue(name, type, data)));
+			return;
+		}
+		add(new LoadedVariable(name, type, data));
+	}
+
+	/**
+	 * Adds a variable read by the storage that has already been deserialized,
+	 * e.g. if it was stored in a legacy format.
+	 *
+	 * @param name the name of the variable.
+	 * @param value the value of the variable.
+	 */
+	void loaded(String name, Object value) {
+		add(new LoadedVariable(name, value));
+	}
+
+	private void add(LoadedVariable variable) {
+		batch.add(variable);
+		if (batch.size() >= BATCH_SIZE)
+			submitBatch();
+	}
+
+	/**
+	 * Waits for all variables to be deserialized and passed on.
+	 * Must be called once the storage has read all variables.
+	 */
+	void finish() {
+		submitBatch();
+		while (!pendingBatches.isEmpty())
+			pass(pendingBatches.poll().join());
+	}
+
+	private void submitBatch() {
+		if (batch.isEmpty())
+			return;
+
+		List<LoadedVariable> batch = this.batch;
+		this.batch = new ArrayList<>(BATCH_SIZE);
+		// Serializers that don't require the main thread must be thread-safe, including Yggdrasil's shared field cache
+		pendingBatches.add(ForkJoinPool.commonPool().submit(() -> {
+			for (LoadedVariable variable : batch) {
+				if (!variable.mustSyncDeserialization())
+					variable.deserialize();
+			}
+			return batch;
+		}));
+
+		// Pass on batches that are done, in order, and don't let too many batches pile up
+		ForkJoinTask<List<LoadedVariable>> oldest;
+		while ((oldest = pendingBatches.peek()) != null && (oldest.isDone() || pendingBatches.size() > MAX_PENDING_BATCHES)) {
+			pendingBatches.poll();
+			pass(oldest.join());
+		}
+	}
+
+	/**
+	 * Passes on the given deserialized batch on Bukkit's main thread.
+	 */
+	private void pass(List<LoadedVariable> batch) {
+		if (Bukkit.isPrimaryThread()) {
+			pass_i(batch);
+		} else {
+			Task.callSync(() -> {
+				pass_i(batch);
+				return null;
+			});
+		}
+	}
+
+	private void pass_i(List<LoadedVariable> batch) {
+		List<NonNullPair<String, Object>> variables = new ArrayList<>(batch.size());
+		for (LoadedVariable variable : batch) {
+			if (variable.mustSyncDeserialization())
+				variable.deserialize();
+
+			Object value = variable.value;
+			if (value == null) {
+				ClassInfo<?> type = variable.type;
+				assert type != null;
+				invalidVariableHandler.accept(variable.name, type);
+				continue;
+			}
+			variables.add(new NonNullPair<>(variable.name, value));
+		}
+		Variables.variablesLoaded(variables, storage);
+	}
+
+}
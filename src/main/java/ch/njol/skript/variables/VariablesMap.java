@@ -19,11 +19,15 @@
 package ch.njol.skript.variables;
 
 import ch.njol.skript.lang.Variable;
+import ch.njol.util.Pair;
 import ch.njol.util.StringUtils;
 import org.eclipse.jdt.annotation.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
@@ -139,13 +143,58 @@ final class VariablesMap {
 	};
 
 	/**
-	 * The map that stores all non-list variables.
+	 * The map that stores all non-list variables, except those stored in {@link #slotValues}.
+	 * <p>
+	 * Replaced by a copy before being modified if {@link #shared}.
 	 */
-	final HashMap<String, Object> hashMap = new HashMap<>();
+	HashMap<String, Object> hashMap = new HashMap<>();
 	/**
 	 * The tree of variables, branched by the list structure of the variables.
+	 * Variables stored in {@link #slotValues} are not part of this tree.
+	 * <p>
+	 * Replaced by a copy before being modified if {@link #shared}.
+	 */
+	TreeMap<String, Object> treeMap = new TreeMap<>();
+
+	/**
+	 * The slots of the variables that are stored in {@link #slotValues}.
+	 */
+	final LocalVariableSlots slots;
+
+	/**
+	 * The values of the variables with a slot in {@link #slots}, indexed by their slot.
+	 * Created when the first of these variables is set.
+	 */
+	private Object @Nullable [] slotValues;
+
+	/**
+	 * Whether {@link #hashMap}, {@link #treeMap} and {@link #slotValues} may also be used by
+	 * a {@link #copy()} of this map (or the map this map was copied from),
+	 * and thus have to be copied before they are modified.
+	 */
+	private boolean shared;
+
+	/**
+	 * The amount of {@link LazyValue}s in this map that may not have been resolved yet,
+	 * so list variables only have to be searched for them if there are any.
+	 */
+	private int lazyValues;
+
+	/**
+	 * Creates a map that stores all variables by name.
+	 */
+	VariablesMap() {
+		this(LocalVariableSlots.EMPTY);
+	}
+
+	/**
+	 * Creates a map that stores the variables with a slot in the given slots in an array.
+	 *
+	 * @param slots the slots of the variables that should be stored in an array.
 	 */
-	final TreeMap<String, Object> treeMap = new TreeMap<>();
+	VariablesMap(LocalVariableSlots slots) {
+		this.slots = slots;
+	}
 
 	/**
 	 * Returns the internal value of the requested variable.
@@ -161,8 +210,15 @@ final class VariablesMap {
 	@Nullable
 	Object getVariable(String name) {
 		if (!name.endsWith("*")) {
+			int slot = slots.getSlot(name);
+			if (slot != -1)
+				return getSlotValue(slot);
+
 			// Not a list variable, quick access from the hash map
-			return hashMap.get(name);
+			Object value = hashMap.get(name);
+			if (value instanceof LazyValue)
+				return ((LazyValue) value).get();
+			return value;
 		} else {
 			// List variable, search the tree branches
 			String[] split = Variables.splitVariableName(name);
@@ -207,12 +263,22 @@ final class VariablesMap {
 	 */
 	@SuppressWarnings("unchecked")
 	void setVariable(String name, @Nullable Object value) {
+		ensureUnshared();
+
 		// First update the hash map easily
 		if (!name.endsWith("*")) {
-			if (value == null)
-				hashMap.remove(name);
-			else
-				hashMap.put(name, value);
+			int slot = slots.getSlot(name);
+			if (slot != -1) {
+				// Variables with a slot never contain a separator, so they don't have to be added to the tree
+				setSlotValue(slot, value);
+				return;
+			}
+
+			Object previous = value == null ? hashMap.remove(name) : hashMap.put(name, value);
+			if (previous instanceof LazyValue)
+				lazyValues--;
+			if (value instanceof LazyValue)
+				lazyValues++;
 		}
 
 		// Then update the tree map by going down the branches
@@ -300,6 +366,154 @@ final class VariablesMap {
 		}
 	}
 
+	/**
+	 * Creates a snapshot of the elements of the given list variable,
+	 * i.e. the indices and values of its direct children in order.
+	 * Elements that only have children of their own but no value are skipped.
+	 * <p>
+	 * <b>Do not modify the returned values!</b>
+	 *
+	 * @param name the name of the list variable, ending with {@code ::*}.
+	 * @return the elements of the list variable, or {@code null} if the list variable doesn't exist.
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	List<Pair<String, Object>> getListElements(String name) {
+		Object list = getVariable(name);
+		if (!(list instanceof TreeMap))
+			return null;
+
+		TreeMap<String, Object> listMap = (TreeMap<String, Object>) list;
+		List<Pair<String, Object>> elements = new ArrayList<>(listMap.size());
+		for (Entry<String, Object> entry : listMap.entrySet()) {
+			String index = entry.getKey();
+			if (index == null)
+				continue; // The value of the list variable itself
+
+			Object value = entry.getValue();
+			if (value instanceof TreeMap)
+				value = ((TreeMap<String, Object>) value).get(null);
+			if (value instanceof LazyValue)
+				value = ((LazyValue) value).get();
+			if (value != null)
+				elements.add(new Pair<>(index, value));
+		}
+		return elements;
+	}
+
+	/**
+	 * Checks whether the given list variable, as returned by {@link #getVariable(String)},
+	 * contains any {@link LazyValue}s, in which case they have to be
+	 * {@link #resolveLazyValues(String, TreeMap) resolved} before the list is returned.
+	 *
+	 * @param list the map of the list variable.
+	 * @return whether the list variable contains lazy values.
+	 */
+	@SuppressWarnings("unchecked")
+	boolean containsLazyValues(TreeMap<String, Object> list) {
+		if (lazyValues == 0)
+			return false;
+
+		for (Object value : list.values()) {
+			if (value instanceof LazyValue)
+				return true;
+			if (value instanceof TreeMap && containsLazyValues((TreeMap<String, Object>) value))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces all {@link LazyValue}s in the given list variable by their values,
+	 * deleting the variables whose values can't be deserialized.
+	 *
+	 * @param name the name of the list variable, ending with {@code ::*}.
+	 * @param list the map of the list variable.
+	 */
+	void resolveLazyValues(String name, TreeMap<String, Object> list) {
+		List<Pair<String, LazyValue>> lazy = new ArrayList<>();
+		collectLazyValues(name.substring(0, name.length() - 1), list, lazy);
+
+		for (Pair<String, LazyValue> variable : lazy)
+			setVariable(variable.getFirst(), variable.getSecond().get());
+	}
+
+	/**
+	 * Adds all {@link LazyValue}s in the given tree to the given list, along with the names of their variables.
+	 *
+	 * @param prefix the prefix of the names of the variables in the tree,
+	 *               e.g. {@code list::} for the tree of {@code list::*}.
+	 */
+	@SuppressWarnings("unchecked")
+	private static void collectLazyValues(String prefix, TreeMap<String, Object> tree, List<Pair<String, LazyValue>> lazy) {
+		for (Entry<String, Object> entry : tree.entrySet()) {
+			Object value = entry.getValue();
+			String key = entry.getKey();
+			if (value instanceof LazyValue) {
+				// The null key is the value of the list variable itself, which doesn't end with a separator
+				String name = key == null
+						? prefix.substring(0, prefix.length() - Variable.SEPARATOR.length())
+						: prefix + key;
+				lazy.add(new Pair<>(name, (LazyValue) value));
+			} else if (value instanceof TreeMap) {
+				collectLazyValues(prefix + key + Variable.SEPARATOR, (TreeMap<String, Object>) value, lazy);
+			}
+		}
+	}
+
+	/**
+	 * Returns the internal value of the variable in the given slot.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 *
+	 * @param slots the slots the given slot belongs to.
+	 *              If these aren't the slots of this map, the variable will be looked up by name.
+	 * @param slot the slot of the variable.
+	 * @return the value of the variable, or {@code null} if the variable is not set.
+	 */
+	@Nullable
+	Object getVariable(LocalVariableSlots slots, int slot) {
+		if (slots != this.slots)
+			return getVariable(slots.getName(slot));
+		return getSlotValue(slot);
+	}
+
+	/**
+	 * Sets the variable in the given slot to the given value.
+	 *
+	 * @param slots the slots the given slot belongs to.
+	 *              If these aren't the slots of this map, the variable will be set by name.
+	 * @param slot the slot of the variable.
+	 * @param value the variable value, {@code null} to delete the variable.
+	 */
+	void setVariable(LocalVariableSlots slots, int slot, @Nullable Object value) {
+		if (slots != this.slots) {
+			setVariable(slots.getName(slot), value);
+			return;
+		}
+		setSlotValue(slot, value);
+	}
+
+	@Nullable
+	private Object getSlotValue(int slot) {
+		Object[] slotValues = this.slotValues;
+		return slotValues != null && slot < slotValues.length ? slotValues[slot] : null;
+	}
+
+	private void setSlotValue(int slot, @Nullable Object value) {
+		ensureUnshared();
+
+		Object[] slotValues = this.slotValues;
+		if (slotValues == null || slot >= slotValues.length) {
+			if (value == null)
+				return;
+			int length = Math.max(slots.size(), slot + 1);
+			slotValues = slotValues == null ? new Object[length] : Arrays.copyOf(slotValues, length);
+			this.slotValues = slotValues;
+		}
+		slotValues[slot] = value;
+	}
+
 	/**
 	 * Deletes all indices of a list variable from the {@link #hashMap}.
 	 *
@@ -315,7 +529,8 @@ final class VariablesMap {
 			String childName = parent + Variable.SEPARATOR + e.getKey();
 
 			// Remove from hashMap
-			hashMap.remove(childName);
+			if (hashMap.remove(childName) instanceof LazyValue)
+				lazyValues--;
 
 			// Recurse if needed
 			Object val = e.getValue();
@@ -327,22 +542,46 @@ final class VariablesMap {
 
 	/**
 	 * Creates a copy of this map.
+	 * <p>
+	 * This doesn't copy any variables yet, instead both maps share them
+	 * until either of them is modified.
 	 *
 	 * @return the copy.
 	 */
 	public VariablesMap copy() {
-		VariablesMap copy = new VariablesMap();
+		VariablesMap copy = new VariablesMap(slots);
 
-		copy.hashMap.putAll(hashMap);
+		copy.hashMap = hashMap;
+		copy.treeMap = treeMap;
+		copy.slotValues = slotValues;
+		copy.lazyValues = lazyValues;
 
-		TreeMap<String, Object> treeMapCopy = copyTreeMap(treeMap);
-		copy.treeMap.putAll(treeMapCopy);
+		copy.shared = true;
+		shared = true;
 
 		return copy;
 	}
 
 	/**
-	 * Makes a deep copy of the given {@link TreeMap}.
+	 * Copies the variables of this map if they are {@link #shared} with another map,
+	 * so they can be modified.
+	 */
+	private void ensureUnshared() {
+		if (!shared)
+			return;
+
+		hashMap = new HashMap<>(hashMap);
+		treeMap = copyTreeMap(treeMap);
+
+		Object[] slotValues = this.slotValues;
+		if (slotValues != null)
+			this.slotValues = slotValues.clone();
+
+		shared = false;
+	}
+
+	/**
+	 * Makes a deep copy of the given {@link TreeMap}, using the same comparator.
 	 * <p>
 	 * The 'deep copy' means that each subtree of the given tree is copied
 	 * as well.
@@ -352,18 +591,15 @@ final class VariablesMap {
 	 */
 	@SuppressWarnings("unchecked")
 	private static TreeMap<String, Object> copyTreeMap(TreeMap<String, Object> original) {
-		TreeMap<String, Object> copy = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+		// Copying a sorted map this way takes linear time
+		TreeMap<String, Object> copy = new TreeMap<>(original);
 
-		for (Entry<String, Object> child : original.entrySet()) {
-			String key = child.getKey();
+		for (Entry<String, Object> child : copy.entrySet()) {
 			Object value = child.getValue();
 
 			// Copy by recursion if the child is a TreeMap
-			if (value instanceof TreeMap) {
-				value = copyTreeMap((TreeMap<String, Object>) value);
-			}
-
-			copy.put(key, value);
+			if (value instanceof TreeMap)
+				child.setValue(copyTreeMap((TreeMap<String, Object>) value));
 		}
 
 		return copy;
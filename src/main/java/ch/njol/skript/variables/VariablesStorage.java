@@ -85,6 +85,21 @@ public abstract class VariablesStorage implements Closeable {
 	@Nullable
 	private Pattern variableNamePattern;
 
+	/**
+	 * The literal prefix of the variable names this storage accepts,
+	 * if the {@link #variableNamePattern} only matches names starting with a fixed prefix,
+	 * e.g. {@code db_} for '{@code db_.*}'. {@code ""} if the pattern is {@code null}.
+	 * {@code null} if the pattern can't be reduced to a prefix.
+	 */
+	@Nullable
+	private String variableNamePrefix;
+
+	/**
+	 * Whether the elements of list variables are only deserialized when they're first accessed,
+	 * see {@link LazyValue}.
+	 */
+	boolean lazyLoading;
+
 	/**
 	 * The thread used for writing variables to the storage.
 	 */
@@ -184,6 +199,7 @@ public abstract class VariablesStorage implements Closeable {
 		try {
 			// Set variable name pattern, see field javadoc for explanation of null value
 			variableNamePattern = pattern.equals(".*") || pattern.equals(".+") ? null : Pattern.compile(pattern);
+			variableNamePrefix = variableNamePattern == null ? "" : getLiteralPrefix(pattern);
 		} catch (PatternSyntaxException e) {
 			Skript.error("Invalid pattern '" + pattern + "': " + e.getLocalizedMessage());
 			return false;
@@ -230,6 +246,14 @@ public abstract class VariablesStorage implements Closeable {
 			}
 		}
 
+		// Optional, only deserialize list elements when they're first accessed
+		if (sectionNode.getValue("lazy loading") != null) {
+			Boolean lazyLoading = getValue(sectionNode, "lazy loading", Boolean.class);
+			if (lazyLoading == null)
+				return false;
+			this.lazyLoading = lazyLoading;
+		}
+
 		// Load the entries custom to the variable storage
 		if (!load_i(sectionNode))
 			return false;
@@ -275,7 +299,7 @@ public abstract class VariablesStorage implements Closeable {
 	protected abstract File getFile(String fileName);
 
 	/**
-	 * Must be locked after {@link Variables#getReadLock()}
+	 * Must be locked after the lock of a {@link VariablesStripe}
 	 * (if that lock is used at all).
 	 */
 	protected final Object connectionLock = new Object();
@@ -344,9 +368,52 @@ public abstract class VariablesStorage implements Closeable {
 		if (var == null)
 			return false;
 
+		String prefix = variableNamePrefix;
+		if (prefix != null)
+			return var.startsWith(prefix);
 		return variableNamePattern == null || variableNamePattern.matcher(var).matches();
 	}
 
+	/**
+	 * @return the literal prefix of the variable names this storage accepts,
+	 * or {@code null} if its pattern can't be reduced to a prefix.
+	 *
+	 * @see #variableNamePrefix
+	 */
+	@Nullable
+	String getVariableNamePrefix() {
+		return variableNamePrefix;
+	}
+
+	/**
+	 * Reduces a pattern of the form '{@code prefix.*}' to its literal prefix,
+	 * where the prefix may only contain escaped special characters.
+	 *
+	 * @param pattern the pattern.
+	 * @return the prefix, or {@code null} if the pattern isn't of that form.
+	 */
+	@Nullable
+	private static String getLiteralPrefix(String pattern) {
+		if (!pattern.endsWith(".*"))
+			return null;
+
+		StringBuilder prefix = new StringBuilder();
+		int end = pattern.length() - 2;
+		for (int i = 0; i < end; i++) {
+			char c = pattern.charAt(i);
+			if (c == '\\') {
+				// Only escaped special characters are literals, escaped letters and digits have special meanings
+				if (++i >= end || Character.isLetterOrDigit(pattern.charAt(i)))
+					return null;
+				c = pattern.charAt(i);
+			} else if (".^$|?*+()[]{}".indexOf(c) != -1) {
+				return null;
+			}
+			prefix.append(c);
+		}
+		return prefix.toString();
+	}
+
 	/**
 	 * The interval between warnings that many variables are being written
 	 * at once, in seconds.
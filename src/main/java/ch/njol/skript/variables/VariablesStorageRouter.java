@@ -0,0 +1,155 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.skript.lang.Variable;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds the storage a variable belongs to, i.e. the first of the given storages
+ * that {@link VariablesStorage#accept(String) accepts} it, without matching
+ * the name against each storage's pattern.
+ * <p>
+ * Storages whose pattern is a literal prefix are put in a prefix trie,
+ * only the other storages' patterns are matched against the name.
+ * Decisions that only depend on the top-level segment of the name,
+ * e.g. {@code list} for {@code list::1}, are remembered.
+ * <p>
+ * Instances are immutable apart from the remembered decisions, and thus thread-safe.
+ * A new router must be created whenever the storages change.
+ */
+final class VariablesStorageRouter {
+
+	/**
+	 * The maximum amount of remembered decisions,
+	 * after which they're forgotten so the memory usage stays bounded.
+	 */
+	private static final int MAX_DECISIONS = 10_000;
+
+	/**
+	 * A node of the prefix trie.
+	 */
+	private static final class Node {
+
+		final Map<Character, Node> children = new HashMap<>();
+
+		/**
+		 * The index of the first storage whose prefix ends at this node,
+		 * or {@link Integer#MAX_VALUE} if there is none.
+		 */
+		int storage = Integer.MAX_VALUE;
+
+	}
+
+	private final VariablesStorage[] storages;
+
+	/**
+	 * The root of the trie of the storages that have a literal prefix.
+	 */
+	private final Node root = new Node();
+
+	/**
+	 * The indices of the storages that don't have a literal prefix, in ascending order.
+	 */
+	private final int[] dynamicStorages;
+
+	/**
+	 * The remembered index of the storage for each top-level segment,
+	 * {@code -1} if no storage accepts the variables starting with it.
+	 */
+	private final Map<String, Integer> decisions = new ConcurrentHashMap<>();
+
+	VariablesStorageRouter(List<VariablesStorage> storages) {
+		this.storages = storages.toArray(new VariablesStorage[0]);
+
+		int[] dynamicStorages = new int[this.storages.length];
+		int dynamicCount = 0;
+		for (int i = 0; i < this.storages.length; i++) {
+			String prefix = this.storages[i].getVariableNamePrefix();
+			if (prefix == null) {
+				dynamicStorages[dynamicCount++] = i;
+				continue;
+			}
+
+			Node node = root;
+			for (int j = 0; j < prefix.length(); j++)
+				node = node.children.computeIfAbsent(prefix.charAt(j), c -> new Node());
+			node.storage = Math.min(node.storage, i);
+		}
+		this.dynamicStorages = new int[dynamicCount];
+		System.arraycopy(dynamicStorages, 0, this.dynamicStorages, 0, dynamicCount);
+	}
+
+	/**
+	 * @param name the name of a variable.
+	 * @return the storage the variable belongs to,
+	 * or {@code null} if none of the storages accepts it.
+	 */
+	@Nullable
+	VariablesStorage getStorage(String name) {
+		int separator = name.indexOf(Variable.SEPARATOR);
+		String segment = separator == -1 ? name : name.substring(0, separator);
+
+		Integer decision = decisions.get(segment);
+		if (decision != null)
+			return decision == -1 ? null : storages[decision];
+
+		// Find the first storage with a matching prefix
+		int storage = root.storage;
+		Node node = root;
+		int position = 0;
+		// The node reached at the end of the segment, or null if the walk ended before it
+		Node segmentEnd = segment.isEmpty() ? root : null;
+		while (position < name.length()) {
+			node = node.children.get(name.charAt(position));
+			if (node == null)
+				break;
+			position++;
+			storage = Math.min(storage, node.storage);
+			if (position == segment.length())
+				segmentEnd = node;
+		}
+
+		// Storages without a prefix that come before it have to be checked the slow way
+		for (int dynamicStorage : dynamicStorages) {
+			if (dynamicStorage > storage)
+				break;
+			if (storages[dynamicStorage].accept(name))
+				return storages[dynamicStorage];
+		}
+
+		// The decision only depends on the segment if no pattern was matched, and no prefix continues past the segment,
+		//  i.e. the walk ended within the segment because no prefix matched, or no prefix is longer than the segment
+		boolean dependsOnSegment = (dynamicStorages.length == 0 || dynamicStorages[0] > storage)
+				&& (segmentEnd == null || segmentEnd.children.isEmpty());
+		if (dependsOnSegment) {
+			if (decisions.size() >= MAX_DECISIONS)
+				decisions.clear();
+			decisions.put(segment, storage == Integer.MAX_VALUE ? -1 : storage);
+		}
+
+		return storage == Integer.MAX_VALUE ? null : storages[storage];
+	}
+
+}
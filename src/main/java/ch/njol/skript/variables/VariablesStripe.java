@@ -0,0 +1,227 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import ch.njol.util.Pair;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A part of the global variables, holding all variables whose top-level name segment
+ * hashes to the same stripe (see {@link Variables#getVariableStripe(String)}).
+ * <p>
+ * Every stripe is guarded by its own lock, so threads accessing variables of different stripes
+ * don't block each other. A list variable and all its elements always belong to the same stripe,
+ * which keeps list operations atomic.
+ */
+final class VariablesStripe {
+
+	/**
+	 * A lock for reading and writing the {@link #variables} of this stripe.
+	 */
+	final ReadWriteLock lock = new ReentrantReadWriteLock(true);
+
+	/**
+	 * The {@link VariablesMap} storing the variables of this stripe,
+	 * must be locked with {@link #lock}.
+	 */
+	final VariablesMap variables = new VariablesMap();
+
+	/**
+	 * Changes to variables of this stripe that have not yet been performed, in order.
+	 */
+	private final Queue<VariableChange> changeQueue = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * The last queued change of each variable in the {@link #changeQueue},
+	 * used to read pending values without scanning the queue.
+	 */
+	private final Map<String, VariableChange> pendingChanges = new ConcurrentHashMap<>();
+
+	/**
+	 * A variable change name-value pair.
+	 */
+	private static final class VariableChange {
+
+		/**
+		 * The name of the changed variable.
+		 */
+		final String name;
+
+		/**
+		 * The (possibly {@code null}) value of the variable change.
+		 */
+		@Nullable
+		final Object value;
+
+		/**
+		 * Creates a new {@link VariableChange} with the given name and value.
+		 *
+		 * @param name the variable name.
+		 * @param value the new variable value.
+		 */
+		VariableChange(String name, @Nullable Object value) {
+			this.name = name;
+			this.value = value;
+		}
+
+	}
+
+	/**
+	 * Returns the internal value of the requested variable,
+	 * taking changes that have not yet been performed into account.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 *
+	 * @param name the variable's name, possibly a list variable.
+	 * @return an {@link Object} for a normal variable
+	 * or a {@code Map<String, Object>} for a list variable,
+	 * or {@code null} if the variable is not set.
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	Object getVariable(String name) {
+		// Prevent race conditions from returning variables with incorrect values
+		if (!pendingChanges.isEmpty()) {
+			VariableChange change = pendingChanges.get(name);
+			if (change != null)
+				return change.value;
+		}
+
+		lock.readLock().lock();
+		try {
+			Object value = variables.getVariable(name);
+			if (!(value instanceof TreeMap) || !variables.containsLazyValues((TreeMap<String, Object>) value))
+				return value;
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		// The list variable contains values that haven't been deserialized yet, which requires modifying it
+		lock.writeLock().lock();
+		try {
+			Object value = variables.getVariable(name);
+			if (value instanceof TreeMap)
+				variables.resolveLazyValues(name, (TreeMap<String, Object>) value);
+			return variables.getVariable(name);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Creates a snapshot of the elements of the given list variable while holding the read lock.
+	 * Changes that have not yet been performed are performed first, so the snapshot includes them,
+	 * like {@link #getVariable(String)} does.
+	 *
+	 * @param name the name of the list variable, ending with {@code ::*}.
+	 * @return the elements of the list variable, or {@code null} if the list variable doesn't exist.
+	 *
+	 * @see VariablesMap#getListElements(String)
+	 */
+	@Nullable
+	List<Pair<String, Object>> getListElements(String name) {
+		if (!changeQueue.isEmpty()) {
+			lock.writeLock().lock();
+			try {
+				processChangeQueue();
+				return variables.getListElements(name);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+
+		lock.readLock().lock();
+		try {
+			return variables.getListElements(name);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Sets the given variable name to the given value, and saves the change.
+	 * If the lock of this stripe is currently held by another thread,
+	 * the change is queued instead of blocking.
+	 *
+	 * @param name the variable name.
+	 * @param value the value, or {@code null} to delete the variable.
+	 */
+	void setVariable(String name, @Nullable Object value) {
+		if (lock.writeLock().tryLock()) {
+			try {
+				// Process all previously queued changes first, they must not override this one
+				processChangeQueue();
+				variables.setVariable(name, value);
+				Variables.saveVariableChange(name, value);
+			} finally {
+				lock.writeLock().unlock();
+			}
+		} else {
+			// Couldn't acquire the write lock, queue the change (blocking here is a bad idea)
+			VariableChange change = new VariableChange(name, value);
+			pendingChanges.put(name, change);
+			changeQueue.add(change);
+		}
+	}
+
+	/**
+	 * Processes all entries in the variable change queue of this stripe.
+	 * <p>
+	 * Note that caller must acquire the write lock before calling this,
+	 * then release it.
+	 */
+	void processChangeQueue() {
+		while (true) { // Run as long as we still have changes
+			VariableChange change = changeQueue.poll();
+			if (change == null)
+				break;
+
+			// Set and save variable
+			variables.setVariable(change.name, change.value);
+			Variables.saveVariableChange(change.name, change.value);
+
+			// Only forget the pending value if it hasn't been changed again since
+			pendingChanges.remove(change.name, change);
+		}
+	}
+
+	/**
+	 * Processes the variable change queue of this stripe if its write lock
+	 * can be acquired without waiting.
+	 */
+	void tryProcessChangeQueue() {
+		if (changeQueue.isEmpty() || !lock.writeLock().tryLock())
+			return;
+		try {
+			processChangeQueue();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+}
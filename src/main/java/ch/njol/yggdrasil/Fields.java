@@ -35,6 +35,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @NotThreadSafe
 public final class Fields implements Iterable<FieldContext> {
@@ -233,7 +234,10 @@ public final class Fields implements Iterable<FieldContext> {
 		}
 	}
 	
-	private static final Map<Class<?>, Collection<Field>> cache = new HashMap<>();
+	/**
+	 * Variables are serialized and deserialized on several threads at once, so the cache must be concurrent.
+	 */
+	private static final Map<Class<?>, Collection<Field>> cache = new ConcurrentHashMap<>();
 	
 	/**
 	 * Gets all serializable fields of the provided class, including superclasses.
@@ -264,8 +268,8 @@ public final class Fields implements Iterable<FieldContext> {
 			}
 		}
 		fields = Collections.unmodifiableCollection(fields);
-		cache.put(type, fields);
-		return fields;
+		Collection<Field> previous = cache.putIfAbsent(type, fields);
+		return previous != null ? previous : fields;
 	}
 	
 	/**
@@ -21,7 +21,6 @@ package org.skriptlang.skript.lang.comparator;
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
 import ch.njol.skript.util.Utils;
-import ch.njol.util.Pair;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 import org.skriptlang.skript.lang.converter.Converter;
@@ -30,9 +29,10 @@ import org.skriptlang.skript.lang.converter.Converters;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Comparators are used to provide Skript with specific instructions for comparing two objects.
@@ -71,11 +71,18 @@ public final class Comparators {
 	}
 
 	/**
-	 * A map for quickly accessing comparators that have already been resolved.
-	 * Some pairs may point to a null value, indicating that no comparator exists between the two types.
+	 * A cache for quickly accessing comparators that have already been resolved, by their first type and then their second type.
+	 * Some pairs may point to an empty optional, indicating that no comparator exists between the two types.
 	 * This is useful for skipping complex lookups that may require conversion and inversion.
+	 * Comparators are looked up from any thread during runtime, so a lookup of a resolved pair neither locks nor allocates.
 	 */
-	private static final Map<Pair<Class<?>, Class<?>>, ComparatorInfo<?, ?>> QUICK_ACCESS_COMPARATORS = new HashMap<>(50);
+	private static final ClassValue<Map<Class<?>, Optional<ComparatorInfo<?, ?>>>> QUICK_ACCESS_COMPARATORS =
+		new ClassValue<Map<Class<?>, Optional<ComparatorInfo<?, ?>>>>() {
+			@Override
+			protected Map<Class<?>, Optional<ComparatorInfo<?, ?>>> computeValue(Class<?> firstType) {
+				return new ConcurrentHashMap<>();
+			}
+		};
 
 	/**
 	 * Registers a new Comparator with Skript's collection of Comparators.
@@ -199,19 +206,18 @@ public final class Comparators {
 	public static <T1, T2> ComparatorInfo<T1, T2> getComparatorInfo(Class<T1> firstType, Class<T2> secondType) {
 		assertIsDoneLoading();
 
-		Pair<Class<?>, Class<?>> pair = new Pair<>(firstType, secondType);
-		ComparatorInfo<T1, T2> comparator;
-
-		synchronized (QUICK_ACCESS_COMPARATORS) {
-			if (QUICK_ACCESS_COMPARATORS.containsKey(pair)) {
-				comparator = (ComparatorInfo<T1, T2>) QUICK_ACCESS_COMPARATORS.get(pair);
-			} else { // Compute QUICK_ACCESS for provided types
-				comparator = getComparatorInfo_i(firstType, secondType);
-				QUICK_ACCESS_COMPARATORS.put(pair, comparator);
-			}
+		Map<Class<?>, Optional<ComparatorInfo<?, ?>>> comparators = QUICK_ACCESS_COMPARATORS.get(firstType);
+		Optional<ComparatorInfo<?, ?>> comparator = comparators.get(secondType);
+		if (comparator == null) { // Compute QUICK_ACCESS for provided types
+			// Not computeIfAbsent, as resolving a comparator may look up other comparators
+			comparator = Optional.ofNullable(getComparatorInfo_i(firstType, secondType));
+			// Another thread may have resolved it in the meantime, make sure the same comparator is always returned
+			Optional<ComparatorInfo<?, ?>> existing = comparators.putIfAbsent(secondType, comparator);
+			if (existing != null)
+				comparator = existing;
 		}
 
-		return comparator;
+		return (ComparatorInfo<T1, T2>) comparator.orElse(null);
 	}
 
 	/**
@@ -20,7 +20,6 @@ package org.skriptlang.skript.lang.converter;
 
 import ch.njol.skript.Skript;
 import ch.njol.skript.SkriptAPIException;
-import ch.njol.util.Pair;
 import org.eclipse.jdt.annotation.Nullable;
 import org.jetbrains.annotations.Unmodifiable;
 
@@ -28,9 +27,10 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Converters are used to provide Skript with specific instructions for converting an object to a different type.
@@ -58,11 +58,18 @@ public final class Converters {
 	}
 
 	/**
-	 * A map for quickly access converters that have already been resolved.
-	 * Some pairs may point to a null value, indicating that no converter exists between the two types.
+	 * A cache for quickly accessing converters that have already been resolved, by their from type and then their to type.
+	 * Some pairs may point to an empty optional, indicating that no converter exists between the two types.
 	 * This is useful for skipping complex lookups that may require chaining.
+	 * Converters are looked up from any thread during runtime, so a lookup of a resolved pair neither locks nor allocates.
 	 */
-	private static final Map<Pair<Class<?>, Class<?>>, ConverterInfo<?, ?>> QUICK_ACCESS_CONVERTERS = new HashMap<>(50);
+	private static final ClassValue<Map<Class<?>, Optional<ConverterInfo<?, ?>>>> QUICK_ACCESS_CONVERTERS =
+		new ClassValue<Map<Class<?>, Optional<ConverterInfo<?, ?>>>>() {
+			@Override
+			protected Map<Class<?>, Optional<ConverterInfo<?, ?>>> computeValue(Class<?> fromType) {
+				return new ConcurrentHashMap<>();
+			}
+		};
 
 	/**
 	 * Registers a new Converter with Skript's collection of Converters.
@@ -157,6 +164,10 @@ public final class Converters {
 				}
 
 			}
+
+			// Resolve the exact matches in advance, getConverterInfo_i would return the first one of each pair as well
+			for (ConverterInfo<?, ?> info : CONVERTERS)
+				QUICK_ACCESS_CONVERTERS.get(info.getFrom()).putIfAbsent(info.getTo(), Optional.of(info));
 		}
 	}
 
@@ -244,19 +255,17 @@ public final class Converters {
 	public static <F, T> ConverterInfo<F, T> getConverterInfo(Class<F> fromType, Class<T> toType) {
 		assertIsDoneLoading();
 
-		Pair<Class<?>, Class<?>> pair = new Pair<>(fromType, toType);
-		ConverterInfo<F, T> converter;
-
-		synchronized (QUICK_ACCESS_CONVERTERS) {
-			if (QUICK_ACCESS_CONVERTERS.containsKey(pair)) {
-				converter = (ConverterInfo<F, T>) QUICK_ACCESS_CONVERTERS.get(pair);
-			} else { // Compute QUICK_ACCESS for provided types
-				converter = getConverterInfo_i(fromType, toType);
-				QUICK_ACCESS_CONVERTERS.put(pair, converter);
-			}
+		Map<Class<?>, Optional<ConverterInfo<?, ?>>> converters = QUICK_ACCESS_CONVERTERS.get(fromType);
+		Optional<ConverterInfo<?, ?>> converter = converters.get(toType);
+		if (converter == null) { // Compute QUICK_ACCESS for provided types
+			converter = Optional.ofNullable(getConverterInfo_i(fromType, toType));
+			// Another thread may have resolved it in the meantime, make sure the same converter is always returned
+			Optional<ConverterInfo<?, ?>> existing = converters.putIfAbsent(toType, converter);
+			if (existing != null)
+				converter = existing;
 		}
 
-		return converter;
+		return (ConverterInfo<F, T>) converter.orElse(null);
 	}
 
 	/**
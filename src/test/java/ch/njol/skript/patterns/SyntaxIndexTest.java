@@ -0,0 +1,80 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.patterns;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.junit.Test;
+
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.SyntaxElement;
+import ch.njol.skript.lang.SyntaxElementInfo;
+import ch.njol.util.Kleenean;
+
+public class SyntaxIndexTest {
+
+	public static class Element implements SyntaxElement {
+
+		@Override
+		public boolean init(Expression<?>[] expressions, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+			return true;
+		}
+
+	}
+
+	private static SyntaxElementInfo<Element> info(String... patterns) {
+		return new SyntaxElementInfo<>(patterns, Element.class, Element.class.getName());
+	}
+
+	private static BitSet bits(int... entries) {
+		BitSet bits = new BitSet();
+		for (int entry : entries)
+			bits.set(entry);
+		return bits;
+	}
+
+	private final SyntaxIndex<SyntaxElementInfo<Element>> index = new SyntaxIndex<>(Arrays.asList(
+		info("teleport to spawn", "tp home"), // 0, 1
+		info("kill all"), // 2
+		info("[the] spawn", "(a|b)"), // 3, 4
+		info("x") // 5
+	));
+
+	@Test
+	public void testCandidates() {
+		assertEquals(bits(0, 3, 4), index.candidates(new ExpressionKeywords("Teleport To Spawn")));
+		assertEquals(bits(1, 4), index.candidates(new ExpressionKeywords("tp home")));
+		assertEquals(bits(2, 4, 5), index.candidates(new ExpressionKeywords("kill all x")));
+		assertEquals(bits(4), index.candidates(new ExpressionKeywords("nothing")));
+	}
+
+	@Test
+	public void testEntries() {
+		assertEquals(0, index.getPatternIndex(0));
+		assertEquals(1, index.getPatternIndex(4));
+		assertEquals(index.getInfos().get(2), index.getInfo(4));
+		assertNotNull(index.getPattern(5));
+	}
+
+}
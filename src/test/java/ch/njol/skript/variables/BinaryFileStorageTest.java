@@ -0,0 +1,60 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class BinaryFileStorageTest {
+
+	@Test(timeout = 30_000)
+	public void testSaveDuringRewrite() throws IOException, InterruptedException {
+		File file = File.createTempFile("variables", ".dat");
+		file.deleteOnExit();
+		BinaryFileStorage storage = new BinaryFileStorage("test");
+		storage.file = file;
+		assertTrue(storage.connect());
+
+		// Keep rewriting the file while changes are being written, none of which may be rejected
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicBoolean allSaved = new AtomicBoolean(true);
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < 1000; i++) {
+				if (!storage.save("variable" + i, "string", new byte[] {1}))
+					allSaved.set(false);
+			}
+			done.set(true);
+		});
+		writer.start();
+		while (!done.get())
+			storage.saveVariables(false);
+		writer.join();
+
+		assertTrue("a change was rejected while the file was being rewritten", allSaved.get());
+		// The file must still be writable after the rewrites
+		assertTrue(storage.save("last", "string", new byte[] {1}));
+		storage.disconnect();
+	}
+
+}
@@ -19,11 +19,22 @@
 package ch.njol.skript.variables;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 
+import ch.njol.skript.util.Version;
+
 public class FlatFileStorageTest {
 
 	@Test
@@ -62,4 +73,51 @@ public class FlatFileStorageTest {
 		}
 	}
 
+	@Test(timeout = 30_000)
+	public void testSaveDuringRewrite() throws IOException, InterruptedException {
+		List<String> savedDuringRewrite = new ArrayList<>();
+		File file = File.createTempFile("variables", ".csv");
+		file.deleteOnExit();
+		FlatFileStorage storage = new FlatFileStorage("test") {
+			@Override
+			Version getSkriptVersion() {
+				// Called while the file is being rewritten, so this change is recorded in changesDuringSave
+				String name = "rewrite" + savedDuringRewrite.size();
+				assertTrue(save(name, "string", new byte[] {1}));
+				savedDuringRewrite.add(name);
+				// The actual version is only set once Skript is enabled
+				return new Version("2.8.0");
+			}
+		};
+		storage.file = file;
+		assertTrue(storage.connect());
+
+		// Keep rewriting the file while changes are being written, which must neither block nor fail
+		AtomicBoolean done = new AtomicBoolean();
+		Thread writer = new Thread(() -> {
+			for (int i = 0; i < 1000; i++)
+				storage.save("variable" + i, "string", new byte[] {1});
+			done.set(true);
+		});
+		writer.start();
+		while (!done.get())
+			storage.saveVariables(false);
+		writer.join();
+		storage.saveVariables(false);
+
+		// The file must still be writable after the rewrites
+		assertTrue(storage.save("last", "string", new byte[] {1}));
+		storage.disconnect();
+		List<String> names = new ArrayList<>();
+		for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+			if (!line.isEmpty() && !line.startsWith("#"))
+				names.add(FlatFileStorage.splitCSV(line)[0]);
+		}
+		assertTrue(names.contains("last"));
+		// None of the variables were in memory, so changes made during a rewrite are only kept if they're appended to the new file
+		assertFalse(savedDuringRewrite.isEmpty());
+		for (String name : savedDuringRewrite)
+			assertTrue(name + " was lost in a rewrite", names.contains(name));
+	}
+
 }
@@ -0,0 +1,114 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+import org.easymock.EasyMock;
+import org.junit.Test;
+
+import ch.njol.skript.log.RetainingLogHandler;
+import ch.njol.skript.log.SkriptLogger;
+import lib.PatPeter.SQLibrary.DBMS;
+import lib.PatPeter.SQLibrary.Database;
+import lib.PatPeter.SQLibrary.DatabaseException;
+import lib.PatPeter.SQLibrary.StatementEnum;
+
+public class SQLStorageTest {
+
+	/**
+	 * A database whose connection prepares the given statements.
+	 */
+	private static class TestDatabase extends Database {
+
+		TestDatabase(Connection connection) throws DatabaseException {
+			super(Logger.getLogger("SQLStorageTest"), "[Test]", DBMS.Other);
+			this.connection = connection;
+		}
+
+		@Override
+		protected boolean initialize() {
+			return true;
+		}
+
+		@Override
+		public boolean open() {
+			return true;
+		}
+
+		@Override
+		protected void queryValidation(StatementEnum statement) {}
+
+		@Override
+		public StatementEnum getStatement(String query) {
+			return null;
+		}
+
+		@Override
+		public boolean isTable(String table) {
+			return true;
+		}
+
+		@Override
+		public boolean truncate(String table) {
+			return true;
+		}
+
+	}
+
+	@Test
+	public void testFailedBatchIsRetried() throws SQLException, DatabaseException {
+		PreparedStatement writeQuery = EasyMock.niceMock(PreparedStatement.class);
+		writeQuery.addBatch();
+		EasyMock.expectLastCall().times(2); // once for the failed batch, once for the retry
+		EasyMock.expect(writeQuery.executeBatch())
+			.andThrow(new SQLException("connection lost"))
+			.andReturn(new int[] {1});
+		PreparedStatement otherQuery = EasyMock.niceMock(PreparedStatement.class);
+
+		Connection connection = EasyMock.niceMock(Connection.class);
+		EasyMock.expect(connection.prepareStatement(EasyMock.anyString()))
+			.andAnswer(() -> ((String) EasyMock.getCurrentArgument(0)).startsWith("REPLACE") ? writeQuery : otherQuery)
+			.anyTimes();
+		EasyMock.replay(writeQuery, otherQuery, connection);
+
+		SQLiteStorage storage = new SQLiteStorage("test");
+		storage.db.set(new TestDatabase(connection));
+		assertTrue(storage.prepareQueries());
+
+		RetainingLogHandler log = SkriptLogger.startRetainingLog();
+		try {
+			assertTrue(storage.save("variable", "string", new byte[] {1}));
+			assertFalse("the first batch should fail", storage.writeBatch());
+			assertTrue("the change should be written again", storage.writeBatch());
+			assertTrue("there should be nothing left to write", storage.writeBatch());
+		} finally {
+			log.stop();
+		}
+
+		EasyMock.verify(writeQuery);
+	}
+
+}
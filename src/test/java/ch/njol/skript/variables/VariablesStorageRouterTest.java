@@ -0,0 +1,129 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.skript.variables;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.eclipse.jdt.annotation.Nullable;
+import org.junit.Test;
+
+import ch.njol.skript.config.SectionNode;
+
+public class VariablesStorageRouterTest {
+
+	/**
+	 * A storage that accepts the variables starting with a prefix.
+	 */
+	private static class PrefixStorage extends VariablesStorage {
+
+		private final String prefix;
+
+		PrefixStorage(String prefix) {
+			super(prefix.isEmpty() ? "default" : prefix);
+			this.prefix = prefix;
+		}
+
+		@Override
+		boolean accept(@Nullable String var) {
+			return var != null && var.startsWith(prefix);
+		}
+
+		@Override
+		String getVariableNamePrefix() {
+			return prefix;
+		}
+
+		@Override
+		protected boolean load_i(SectionNode n) {
+			return true;
+		}
+
+		@Override
+		protected void allLoaded() {}
+
+		@Override
+		protected boolean requiresFile() {
+			return false;
+		}
+
+		@Override
+		protected File getFile(String fileName) {
+			return new File(fileName);
+		}
+
+		@Override
+		protected boolean connect() {
+			return true;
+		}
+
+		@Override
+		protected void disconnect() {}
+
+		@Override
+		protected boolean save(String name, @Nullable String type, @Nullable byte[] value) {
+			return true;
+		}
+
+	}
+
+	@Test
+	public void testPrefixRouting() {
+		VariablesStorage stats = new PrefixStorage("stats::");
+		VariablesStorage db = new PrefixStorage("db_");
+		VariablesStorage fallback = new PrefixStorage("");
+		VariablesStorageRouter router = new VariablesStorageRouter(Arrays.asList(stats, db, fallback));
+
+		// Twice each, so remembered decisions are used as well
+		for (int i = 0; i < 2; i++) {
+			assertSame(stats, router.getStorage("stats::kills"));
+			assertSame(db, router.getStorage("db_money::player"));
+			assertSame(fallback, router.getStorage("db"));
+			assertSame(fallback, router.getStorage("money::player"));
+		}
+	}
+
+	@Test
+	public void testPrefixContinuingPastSegment() {
+		VariablesStorage stats = new PrefixStorage("stats::");
+		VariablesStorage fallback = new PrefixStorage("");
+		VariablesStorageRouter router = new VariablesStorageRouter(Arrays.asList(stats, fallback));
+
+		// The decision for {stats} must not be remembered for the elements of {stats::*}
+		assertSame(fallback, router.getStorage("stats"));
+		assertSame(stats, router.getStorage("stats::kills"));
+		assertSame(fallback, router.getStorage("stats"));
+		assertSame(stats, router.getStorage("stats::deaths"));
+	}
+
+	@Test
+	public void testPrefixContinuingPastSegmentWithoutFallback() {
+		VariablesStorage stats = new PrefixStorage("stats::");
+		VariablesStorageRouter router = new VariablesStorageRouter(Arrays.asList(stats));
+
+		assertNull(router.getStorage("stats"));
+		assertSame(stats, router.getStorage("stats::kills"));
+		assertNull(router.getStorage("kills"));
+		assertNull(router.getStorage("kills"));
+	}
+
+}
@@ -0,0 +1,91 @@
+/**
+ *   This file is part of Skript.
+ *
+ *  Skript is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  Skript is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with Skript.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Copyright Peter Güttinger, SkriptLang team and contributors
+ */
+package ch.njol.yggdrasil;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class FieldsTest {
+
+	@SuppressWarnings("unused")
+	private static class First {
+		private int a;
+		private String b;
+		private transient int ignored;
+		private static int alsoIgnored;
+	}
+
+	@SuppressWarnings("unused")
+	private static class Second extends First {
+		private long c;
+	}
+
+	@SuppressWarnings("unused")
+	private static class Third extends Second {
+		private double d;
+		private Object e;
+	}
+
+	/**
+	 * Variables are deserialized on several threads at once, which all collect the fields of the same classes.
+	 */
+	@Test(timeout = 30000)
+	public void testConcurrentGetFields() throws Exception {
+		Class<?>[] types = {First.class, Second.class, Third.class};
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<Collection<Field>>>> futures = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				Callable<List<Collection<Field>>> task = () -> {
+					List<Collection<Field>> fields = new ArrayList<>();
+					for (int j = 0; j < 1000; j++) {
+						for (Class<?> type : types)
+							fields.add(Fields.getFields(type));
+					}
+					return fields;
+				};
+				futures.add(executor.submit(task));
+			}
+
+			for (Future<List<Collection<Field>>> future : futures) {
+				List<Collection<Field>> fields = future.get();
+				for (int i = 0; i < fields.size(); i++)
+					assertSame(Fields.getFields(types[i % types.length]), fields.get(i));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(2, Fields.getFields(First.class).size());
+		assertEquals(3, Fields.getFields(Second.class).size());
+		assertEquals(5, Fields.getFields(Third.class).size());
+	}
+
+}